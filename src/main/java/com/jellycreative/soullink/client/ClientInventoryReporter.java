@@ -0,0 +1,64 @@
+package com.jellycreative.soullink.client;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import com.jellycreative.soullink.network.InventoryHashPacket;
+import com.jellycreative.soullink.network.SoulLinkNetwork;
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Periodically reports per-slot hashes of the local inventory to the server, which answers
+ * with only the slots that are out of sync. Catches desyncs no server-side diff can see.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID, value = Dist.CLIENT)
+public class ClientInventoryReporter {
+
+    // How often to report (in ticks)
+    private static final int REPORT_INTERVAL = 200; // Every 10 seconds
+
+    private static int ticksUntilReport = REPORT_INTERVAL;
+    private static boolean reportRequested = false;
+
+    /**
+     * Report on the next client tick, e.g. after an update could not be applied
+     */
+    public static void requestReport() {
+        reportRequested = true;
+    }
+
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null || mc.getConnection() == null) {
+            ticksUntilReport = REPORT_INTERVAL;
+            return;
+        }
+
+        if (--ticksUntilReport > 0 && !reportRequested) {
+            return;
+        }
+        ticksUntilReport = REPORT_INTERVAL;
+        reportRequested = false;
+
+        // Servers without Soul-Link never registered the channel
+        if (!SoulLinkNetwork.CHANNEL.isRemotePresent(mc.getConnection().getConnection())) {
+            return;
+        }
+
+        Inventory inv = mc.player.getInventory();
+        int[] hashes = new int[SharedInventoryManager.INVENTORY_SIZE];
+        for (int i = 0; i < hashes.length; i++) {
+            ItemStack stack = inv.getItem(i);
+            hashes[i] = InventoryHashPacket.slotHash(stack, stack.getTag());
+        }
+        SoulLinkNetwork.CHANNEL.sendToServer(new InventoryHashPacket(hashes));
+    }
+}
@@ -2,19 +2,39 @@ package com.jellycreative.soullink.command;
 
 import com.jellycreative.soullink.SoulLink;
 import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.handler.SoulLinkEventHandler;
+import com.jellycreative.soullink.handler.SoulLinkRoster;
 import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import com.jellycreative.soullink.link.LinkGraph;
+import com.jellycreative.soullink.link.LinkedAttributes;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.network.ChunkedInventoryTransfer;
+import com.jellycreative.soullink.network.EncodedStackCache;
+import com.jellycreative.soullink.network.SoulLinkPacketQueue;
+import com.jellycreative.soullink.util.SoulLinkEncoder;
+import com.jellycreative.soullink.util.SoulLinkExecutor;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import com.jellycreative.soullink.util.SoulLinkWorkQueue;
+import com.mojang.authlib.GameProfile;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.commands.arguments.GameProfileArgument;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Commands for controlling Soul-Link settings in-game.
  */
@@ -36,6 +56,14 @@ public class SoulLinkCommands {
                         })
                 )
                 
+                // Runtime statistics
+                .then(Commands.literal("stats")
+                        .executes(context -> {
+                            sendStats(context.getSource());
+                            return 1;
+                        })
+                )
+                
                 // Toggle damage linking
                 .then(Commands.literal("damage")
                         .then(Commands.argument("enabled", BoolArgumentType.bool())
@@ -121,6 +149,60 @@ public class SoulLinkCommands {
                         )
                 )
                 
+                // Link graph commands
+                .then(Commands.literal("links")
+                        .executes(context -> {
+                            listLinks(context.getSource());
+                            return 1;
+                        })
+                        .then(Commands.literal("add")
+                                .then(Commands.argument("source", EntityArgument.player())
+                                        .then(Commands.argument("target", EntityArgument.player())
+                                                .executes(context -> addLink(context, 1.0, 1.0, 1.0, 1.0))
+                                                .then(Commands.argument("damage", DoubleArgumentType.doubleArg(0.0, 10.0))
+                                                        .executes(context -> addLink(context,
+                                                                DoubleArgumentType.getDouble(context, "damage"), 1.0, 1.0, 1.0))
+                                                        .then(Commands.argument("healing", DoubleArgumentType.doubleArg(0.0, 10.0))
+                                                                .executes(context -> addLink(context,
+                                                                        DoubleArgumentType.getDouble(context, "damage"),
+                                                                        DoubleArgumentType.getDouble(context, "healing"), 1.0, 1.0))
+                                                                .then(Commands.argument("knockback", DoubleArgumentType.doubleArg(0.0, 10.0))
+                                                                        .executes(context -> addLink(context,
+                                                                                DoubleArgumentType.getDouble(context, "damage"),
+                                                                                DoubleArgumentType.getDouble(context, "healing"),
+                                                                                DoubleArgumentType.getDouble(context, "knockback"), 1.0))
+                                                                        .then(Commands.argument("hunger", DoubleArgumentType.doubleArg(0.0, 10.0))
+                                                                                .executes(context -> addLink(context,
+                                                                                        DoubleArgumentType.getDouble(context, "damage"),
+                                                                                        DoubleArgumentType.getDouble(context, "healing"),
+                                                                                        DoubleArgumentType.getDouble(context, "knockback"),
+                                                                                        DoubleArgumentType.getDouble(context, "hunger")))
+                                                                        )
+                                                                )
+                                                        )
+                                                )
+                                        )
+                                )
+                        )
+                        // Profiles rather than players, so links of offline players can be removed too
+                        .then(Commands.literal("remove")
+                                .then(Commands.argument("source", GameProfileArgument.gameProfile())
+                                        .then(Commands.argument("target", GameProfileArgument.gameProfile())
+                                                .executes(context -> removeLinks(context.getSource(),
+                                                        GameProfileArgument.getGameProfiles(context, "source"),
+                                                        GameProfileArgument.getGameProfiles(context, "target")))
+                                        )
+                                )
+                        )
+                        .then(Commands.literal("clear")
+                                .executes(context -> {
+                                    LinkGraph.clear();
+                                    context.getSource().sendSuccess(() -> Component.literal("§a[Soul-Link] §7All links removed - everyone is linked again!"), true);
+                                    return 1;
+                                })
+                        )
+                )
+                
                 // Help command
                 .then(Commands.literal("help")
                         .executes(context -> {
@@ -166,6 +248,22 @@ public class SoulLinkCommands {
         }
     }
 
+    private static void sendStats(CommandSourceStack source) {
+        source.sendSuccess(() -> Component.literal("§d=== Soul-Link Stats ==="), false);
+        source.sendSuccess(() -> Component.literal("§7Governor: §b" + SoulLinkGovernor.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Roster: §b" + SoulLinkRoster.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Link Graph: §b" + LinkGraph.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Shared Death: §b" + SoulLinkEventHandler.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Linked Attributes: §b" + LinkedAttributes.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Deferred Work: §b" + SoulLinkWorkQueue.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7I/O Executor: §b" + SoulLinkExecutor.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Packet Queue: §b" + SoulLinkPacketQueue.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Encoder: §b" + SoulLinkEncoder.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Chunked Transfers: §b" + ChunkedInventoryTransfer.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Encoded Stack Cache: §b" + EncodedStackCache.describe()), false);
+        source.sendSuccess(() -> Component.literal("§7Shared Inventory: §b" + SharedInventoryManager.describe()), false);
+    }
+
     private static void syncAllPlayers(CommandSourceStack source) {
         if (source.getServer() == null) {
             source.sendFailure(Component.literal("§c[Soul-Link] Cannot sync - no server available"));
@@ -212,6 +310,7 @@ public class SoulLinkCommands {
     private static void sendHelp(CommandSourceStack source) {
         source.sendSuccess(() -> Component.literal("§d=== Soul-Link Commands ==="), false);
         source.sendSuccess(() -> Component.literal("§7/soullink status §8- Show current settings"), false);
+        source.sendSuccess(() -> Component.literal("§7/soullink stats §8- Show runtime statistics"), false);
         source.sendSuccess(() -> Component.literal("§7/soullink sync §8- Synchronize all player vitals"), false);
         source.sendSuccess(() -> Component.literal("§7/soullink damage <true|false> §8- Toggle damage linking"), false);
         source.sendSuccess(() -> Component.literal("§7/soullink healing <true|false> §8- Toggle healing linking"), false);
@@ -220,28 +319,93 @@ public class SoulLinkCommands {
         source.sendSuccess(() -> Component.literal("§7/soullink inventory sync §8- Force sync shared inventory"), false);
         source.sendSuccess(() -> Component.literal("§7/soullink inventory reset §8- Reset shared inventory"), false);
         source.sendSuccess(() -> Component.literal("§7/soullink inventory copyfrom <player> §8- Copy player's inventory to shared"), false);
+        source.sendSuccess(() -> Component.literal("§7/soullink links §8- List player links"), false);
+        source.sendSuccess(() -> Component.literal("§7/soullink links add <source> <target> [damage] [healing] [knockback] [hunger] §8- Link target to source"), false);
+        source.sendSuccess(() -> Component.literal("§7/soullink links remove <source> <target> §8- Remove a link"), false);
+        source.sendSuccess(() -> Component.literal("§7/soullink links clear §8- Remove all links (everyone linked)"), false);
         source.sendSuccess(() -> Component.literal("§8Note: For permanent changes, edit the config file."), false);
     }
     
+    private static int addLink(CommandContext<CommandSourceStack> context, double damage, double healing,
+                               double knockback, double hunger) throws CommandSyntaxException {
+        ServerPlayer linkSource = EntityArgument.getPlayer(context, "source");
+        ServerPlayer linkTarget = EntityArgument.getPlayer(context, "target");
+        if (linkSource == linkTarget) {
+            context.getSource().sendFailure(Component.literal("§c[Soul-Link] A player cannot be linked to themselves"));
+            return 0;
+        }
+        
+        float[] multipliers = new float[LinkStat.values().length];
+        multipliers[LinkStat.DAMAGE.ordinal()] = (float) damage;
+        multipliers[LinkStat.HEALING.ordinal()] = (float) healing;
+        multipliers[LinkStat.KNOCKBACK.ordinal()] = (float) knockback;
+        multipliers[LinkStat.HUNGER.ordinal()] = (float) hunger;
+        LinkGraph.link(linkSource, linkTarget, multipliers);
+        
+        context.getSource().sendSuccess(() -> Component.literal("§a[Soul-Link] §b" + linkTarget.getName().getString() +
+                "§7 now receives §b" + linkSource.getName().getString() + "'s§7 effects " + formatMultipliers(multipliers)), true);
+        return 1;
+    }
+    
+    private static int removeLinks(CommandSourceStack source, Collection<GameProfile> linkSources,
+                                   Collection<GameProfile> linkTargets) {
+        int removed = 0;
+        for (GameProfile linkSource : linkSources) {
+            for (GameProfile linkTarget : linkTargets) {
+                if (LinkGraph.unlink(linkSource.getId(), linkTarget.getId())) {
+                    removed++;
+                    source.sendSuccess(() -> Component.literal("§a[Soul-Link] §7Removed link " +
+                            linkSource.getName() + " → " + linkTarget.getName()), true);
+                }
+            }
+        }
+        if (removed == 0) {
+            source.sendFailure(Component.literal("§c[Soul-Link] No such link"));
+        }
+        return removed;
+    }
+    
+    private static void listLinks(CommandSourceStack source) {
+        List<LinkGraph.Edge> edges = LinkGraph.listEdges();
+        if (edges.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("§d[Soul-Link] §7No links defined - everyone is linked to everyone"), false);
+            return;
+        }
+        
+        source.sendSuccess(() -> Component.literal("§d=== Soul-Link Links ==="), false);
+        for (LinkGraph.Edge edge : edges) {
+            source.sendSuccess(() -> Component.literal("§b" + edge.sourceName() + " §7→ §b" + edge.targetName() +
+                    " " + formatMultipliers(edge.multipliers())), false);
+        }
+    }
+    
+    private static String formatMultipliers(float[] multipliers) {
+        return String.format(Locale.ROOT, "§8(damage ×%.2f, healing ×%.2f, knockback ×%.2f, hunger ×%.2f)",
+                multipliers[LinkStat.DAMAGE.ordinal()], multipliers[LinkStat.HEALING.ordinal()],
+                multipliers[LinkStat.KNOCKBACK.ordinal()], multipliers[LinkStat.HUNGER.ordinal()]);
+    }
+    
     private static void syncInventory(CommandSourceStack source) {
         if (!SoulLinkConfig.LINK_INVENTORY.get()) {
             source.sendFailure(Component.literal("§c[Soul-Link] Inventory linking is disabled in config"));
             return;
         }
         
-        SharedInventoryManager.syncAllPlayers();
-        source.sendSuccess(() -> Component.literal("§a[Soul-Link] §7Synchronized shared inventory to all players!"), true);
+        SharedInventoryManager.queueSyncAllPlayers();
+        source.sendSuccess(() -> Component.literal("§a[Soul-Link] §7Synchronizing shared inventory to all players!"), true);
     }
     
     private static void resetInventory(CommandSourceStack source) {
         SharedInventoryManager.reset();
+        // Applied inline: every player's merge base must be the reset state before the
+        // next inventory check or pickup flush, or their old items merge straight back in
         SharedInventoryManager.syncAllPlayers();
         source.sendSuccess(() -> Component.literal("§a[Soul-Link] §7Shared inventory has been reset!"), true);
     }
     
     private static void copyInventoryFrom(CommandSourceStack source, ServerPlayer player) {
         SharedInventoryManager.copyFromPlayer(player);
-        SharedInventoryManager.syncAllPlayers();
+        SharedInventoryManager.queueSyncAllPlayers();
         source.sendSuccess(() -> Component.literal("§a[Soul-Link] §7Copied inventory from " + 
                 player.getName().getString() + " to shared inventory!"), true);
     }
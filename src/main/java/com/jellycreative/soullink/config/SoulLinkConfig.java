@@ -16,8 +16,14 @@ public class SoulLinkConfig {
     public static final ForgeConfigSpec.BooleanValue LINK_KNOCKBACK;
     public static final ForgeConfigSpec.BooleanValue LINK_HUNGER;
     public static final ForgeConfigSpec.BooleanValue LINK_SATURATION;
+    public static final ForgeConfigSpec.BooleanValue LINK_EXPERIENCE;
+    public static final ForgeConfigSpec.BooleanValue LINK_AIR_SUPPLY;
+    public static final ForgeConfigSpec.BooleanValue LINK_FREEZING;
+    public static final ForgeConfigSpec.BooleanValue LINK_EFFECTS;
     public static final ForgeConfigSpec.BooleanValue LINK_INVENTORY;
     public static final ForgeConfigSpec.BooleanValue KEEP_INVENTORY_ON_DEATH;
+    public static final ForgeConfigSpec.BooleanValue USE_BINARY_SNAPSHOT;
+    public static final ForgeConfigSpec.EnumValue<ConflictPolicy> INVENTORY_CONFLICT_POLICY;
 
     // Damage settings
     public static final ForgeConfigSpec.DoubleValue DAMAGE_MULTIPLIER;
@@ -36,6 +42,33 @@ public class SoulLinkConfig {
     public static final ForgeConfigSpec.IntValue MIN_PLAYERS_FOR_LINK;
     public static final ForgeConfigSpec.BooleanValue SHOW_LINK_MESSAGES;
     public static final ForgeConfigSpec.BooleanValue PREVENT_PLAYER_VS_PLAYER_LOOP;
+    public static final ForgeConfigSpec.EnumValue<LinkScope> LINK_SCOPE;
+    public static final ForgeConfigSpec.DoubleValue LINK_RADIUS;
+    
+    // Performance settings
+    public static final ForgeConfigSpec.DoubleValue TARGET_MSPT;
+    public static final ForgeConfigSpec.DoubleValue TICK_BUDGET_MS;
+    public static final ForgeConfigSpec.IntValue MAX_STRETCH;
+    public static final ForgeConfigSpec.DoubleValue WORK_QUEUE_BUDGET_MS;
+    public static final ForgeConfigSpec.IntValue PLAYER_BANDWIDTH;
+    public static final ForgeConfigSpec.BooleanValue ASYNC_ENCODING;
+
+    /**
+     * Resolution for shared inventory slots edited on both sides between syncs
+     */
+    public enum ConflictPolicy {
+        PLAYER,
+        SHARED
+    }
+
+    /**
+     * Which players a player's damage, healing, knockback, hunger and death reach
+     */
+    public enum LinkScope {
+        GLOBAL,
+        DIMENSION,
+        RADIUS
+    }
 
     static {
         BUILDER.comment("Soul-Link Configuration").push("general");
@@ -52,6 +85,16 @@ public class SoulLinkConfig {
                 .comment("Prevent infinite loops when players attack each other (default: true)")
                 .define("preventPvPLoop", true);
         
+        LINK_SCOPE = BUILDER
+                .comment("Which players are linked to each other",
+                        "GLOBAL = everyone, DIMENSION = players in the same dimension,",
+                        "RADIUS = players within linkRadius blocks in the same dimension (default: GLOBAL)")
+                .defineEnum("linkScope", LinkScope.GLOBAL);
+        
+        LINK_RADIUS = BUILDER
+                .comment("Link radius in blocks when linkScope is RADIUS (default: 64.0)")
+                .defineInRange("linkRadius", 64.0, 1.0, 4096.0);
+        
         BUILDER.pop();
         
         BUILDER.comment("Damage Linking Settings").push("damage");
@@ -110,6 +153,26 @@ public class SoulLinkConfig {
         
         BUILDER.pop();
         
+        BUILDER.comment("Other Linked Attributes").push("attributes");
+        
+        LINK_EXPERIENCE = BUILDER
+                .comment("Link experience gains and losses between all players (default: false)")
+                .define("linkExperience", false);
+        
+        LINK_AIR_SUPPLY = BUILDER
+                .comment("Linked players lose air along with a player running out of it (default: false)")
+                .define("linkAirSupply", false);
+        
+        LINK_FREEZING = BUILDER
+                .comment("Linked players freeze along with a player freezing in powder snow (default: false)")
+                .define("linkFreezing", false);
+        
+        LINK_EFFECTS = BUILDER
+                .comment("Share newly gained potion effects with linked players (default: false)")
+                .define("linkEffects", false);
+        
+        BUILDER.pop();
+        
         BUILDER.comment("Inventory Linking Settings").push("inventory");
         
         LINK_INVENTORY = BUILDER
@@ -120,6 +183,46 @@ public class SoulLinkConfig {
                 .comment("Keep the shared inventory when a player dies (default: true)")
                 .define("keepInventoryOnDeath", true);
         
+        USE_BINARY_SNAPSHOT = BUILDER
+                .comment("Store the shared inventory in a compact binary .slinv file instead of NBT world data (default: false)")
+                .define("useBinarySnapshot", false);
+        
+        INVENTORY_CONFLICT_POLICY = BUILDER
+                .comment("Which edit wins when a player and the shared inventory changed the same slot between syncs",
+                        "PLAYER = the syncing player's edit wins, SHARED = the shared inventory is kept (default: PLAYER)")
+                .defineEnum("inventoryConflictPolicy", ConflictPolicy.PLAYER);
+        
+        BUILDER.pop();
+        
+        BUILDER.comment("Performance Settings").push("performance");
+        
+        TARGET_MSPT = BUILDER
+                .comment("Average server tick time (ms) above which Soul-Link slows down its non-essential work (default: 45.0)")
+                .defineInRange("targetMspt", 45.0, 10.0, 1000.0);
+        
+        TICK_BUDGET_MS = BUILDER
+                .comment("Time per tick (ms) Soul-Link may spend on inventory sync, saving and packet flushing before it slows down (default: 2.0)")
+                .defineInRange("tickBudgetMs", 2.0, 0.1, 50.0);
+        
+        MAX_STRETCH = BUILDER
+                .comment("Largest factor by which Soul-Link stretches its check, save and debounce intervals under load (default: 8)")
+                .defineInRange("maxStretch", 8, 1, 64);
+        
+        WORK_QUEUE_BUDGET_MS = BUILDER
+                .comment("Time per tick (ms) for deferred work such as join syncs, container-close resyncs and saves;",
+                        "unfinished work carries over to the next tick (default: 1.0)")
+                .defineInRange("workQueueBudgetMs", 1.0, 0.05, 50.0);
+        
+        PLAYER_BANDWIDTH = BUILDER
+                .comment("Outbound Soul-Link bandwidth per player in bytes per second; vitals are always sent,",
+                        "inventory syncs and then link messages wait when it is used up. 0 = unlimited (default: 131072)")
+                .defineInRange("playerBandwidth", 131072, 0, 16 * 1024 * 1024);
+        
+        ASYNC_ENCODING = BUILDER
+                .comment("Encode larger inventory syncs on background threads; they are sent on the next flush",
+                        "after encoding finishes (default: true)")
+                .define("asyncEncoding", true);
+        
         BUILDER.pop();
         
         SPEC = BUILDER.build();
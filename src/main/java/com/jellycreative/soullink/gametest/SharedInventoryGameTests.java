@@ -0,0 +1,146 @@
+package com.jellycreative.soullink.gametest;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import com.jellycreative.soullink.network.SoulLinkNetwork;
+import com.jellycreative.soullink.network.SoulLinkPacketQueue;
+import com.jellycreative.soullink.network.SyncInventoryPacket;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.PacketSendListener;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
+import net.minecraft.network.protocol.game.ClientboundCustomPayloadPacket;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.network.NetworkDirection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Game tests for shared inventory syncs, run with the gameTestServer run configuration
+ */
+@GameTestHolder(SoulLink.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class SharedInventoryGameTests {
+
+    private static final ResourceLocation CHANNEL_NAME = new ResourceLocation(SoulLink.MOD_ID, "main");
+
+    // Fewer than half the slots, so the sync is a slot packet rather than the full snapshot,
+    // and below the async encoding threshold, so it goes out with the first flush
+    private static final int[] CHANGED_SLOTS = {2, 17, 40};
+
+    /**
+     * Connection that records outgoing packets instead of writing them to a channel
+     */
+    private static class RecordingListener extends ServerGamePacketListenerImpl {
+        final List<Packet<?>> sent = new ArrayList<>();
+
+        RecordingListener(ServerPlayer player) {
+            super(player.server, new Connection(PacketFlow.SERVERBOUND), player);
+        }
+
+        @Override
+        public void send(Packet<?> packet) {
+            record(packet);
+        }
+
+        @Override
+        public void send(Packet<?> packet, PacketSendListener listener) {
+            record(packet);
+        }
+
+        private void record(Packet<?> packet) {
+            if (packet instanceof ClientboundBundlePacket bundle) {
+                bundle.subPackets().forEach(sent::add);
+            } else {
+                sent.add(packet);
+            }
+        }
+    }
+
+    /**
+     * Changed shared slots reach the player in exactly one Soul-Link packet carrying exactly those
+     * slots, and vanilla's menu sync does not send them a second time
+     */
+    @GameTest(template = "soullink:empty")
+    public static void changedSlotsAreSentOnce(GameTestHelper helper) {
+        helper.assertTrue(SharedInventoryManager.isEnabled(), "Inventory linking is disabled in the test config");
+        SharedInventoryManager.reset();
+        ServerPlayer player = new ServerPlayer(helper.getLevel().getServer(), helper.getLevel(),
+                new GameProfile(UUID.randomUUID(), "soullink-test"));
+        RecordingListener listener = new RecordingListener(player);
+        player.initInventoryMenu();
+        listener.sent.clear();
+
+        try {
+            for (int slot : CHANGED_SLOTS) {
+                SharedInventoryManager.setSlot(slot, new ItemStack(Items.DIAMOND, slot + 1));
+            }
+
+            SharedInventoryManager.applyToPlayer(player);
+            SoulLinkPacketQueue.flush();
+
+            List<SyncInventoryPacket> syncs = inventorySyncs(listener.sent);
+            helper.assertTrue(syncs.size() == 1, "Expected one SyncInventoryPacket, got " + syncs.size());
+            int[] slots = syncs.get(0).getSlots();
+            Arrays.sort(slots);
+            helper.assertTrue(Arrays.equals(slots, CHANGED_SLOTS),
+                    "Expected slots " + Arrays.toString(CHANGED_SLOTS) + ", got " + Arrays.toString(slots));
+            for (int slot : CHANGED_SLOTS) {
+                helper.assertTrue(player.getInventory().getItem(slot).getCount() == slot + 1,
+                        "Slot " + slot + " was not applied on the server");
+            }
+
+            listener.sent.clear();
+            player.inventoryMenu.broadcastChanges();
+            long slotPackets = listener.sent.stream().filter(ClientboundContainerSetSlotPacket.class::isInstance).count();
+            helper.assertTrue(slotPackets == 0, "Vanilla sent " + slotPackets + " slot packet(s) after the sync");
+
+            helper.succeed();
+        } finally {
+            SharedInventoryManager.onPlayerLeave(player);
+            SharedInventoryManager.reset();
+        }
+    }
+
+    /**
+     * Decode the SyncInventoryPackets among the recorded packets
+     */
+    private static List<SyncInventoryPacket> inventorySyncs(List<Packet<?>> sent) {
+        int discriminator = discriminator(new SyncInventoryPacket(new int[0], List.of()));
+        List<SyncInventoryPacket> syncs = new ArrayList<>();
+        for (Packet<?> packet : sent) {
+            if (!(packet instanceof ClientboundCustomPayloadPacket payload) || !CHANNEL_NAME.equals(payload.getIdentifier())) {
+                continue;
+            }
+            FriendlyByteBuf data = payload.getData();
+            if (data.readUnsignedByte() == discriminator) {
+                syncs.add(SyncInventoryPacket.decode(data));
+            }
+        }
+        return syncs;
+    }
+
+    /**
+     * Channel index of a message type, read back from an encoded probe message
+     */
+    private static int discriminator(Object probe) {
+        ClientboundCustomPayloadPacket packet = (ClientboundCustomPayloadPacket)
+                SoulLinkNetwork.CHANNEL.toVanillaPacket(probe, NetworkDirection.PLAY_TO_CLIENT);
+        return packet.getData().readUnsignedByte();
+    }
+}
@@ -2,13 +2,21 @@ package com.jellycreative.soullink.handler;
 
 import com.jellycreative.soullink.SoulLink;
 import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import com.jellycreative.soullink.link.LinkPlan;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttributes;
 import com.jellycreative.soullink.network.KnockbackPacket;
 import com.jellycreative.soullink.network.SoulLinkNetwork;
 import com.jellycreative.soullink.network.SyncHealthPacket;
-import com.jellycreative.soullink.network.SyncHungerPacket;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.damagesource.DamageType;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.Vec3;
@@ -26,25 +34,30 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Main event handler for Soul-Link.
- * Handles damage, healing, knockback, and hunger synchronization between all players.
+ * Handles damage, healing, knockback and death synchronization between all players.
+ * Polled stats (hunger, saturation, experience...) are linked by {@link LinkedAttributes}.
  */
 public class SoulLinkEventHandler {
     
-    // Track players being processed to prevent infinite loops
-    private static final Set<UUID> processingDamage = ConcurrentHashMap.newKeySet();
-    private static final Set<UUID> processingHealing = ConcurrentHashMap.newKeySet();
-    private static final Set<UUID> processingKnockback = ConcurrentHashMap.newKeySet();
+    // Set while a propagation plan is being walked (server thread only). Propagation is one hop:
+    // effects applied from a plan never propagate again, so link cycles cannot loop.
+    private static boolean propagating = false;
     
-    // Track previous hunger values for each player to detect changes
-    private static final Map<UUID, Integer> previousFoodLevel = new ConcurrentHashMap<>();
-    private static final Map<UUID, Float> previousSaturation = new ConcurrentHashMap<>();
+    // Dedicated damage type for shared deaths (data/soullink/damage_type/soul_link.json)
+    public static final ResourceKey<DamageType> SOUL_LINK_DAMAGE =
+            ResourceKey.create(Registries.DAMAGE_TYPE, new ResourceLocation(SoulLink.MOD_ID, "soul_link"));
     
-    // Flag to prevent hunger sync loops
-    private static final Set<UUID> processingHunger = ConcurrentHashMap.newKeySet();
+    // Players that died this tick with shared death on, resolved together at the end of the tick (server thread only)
+    private static final Set<ServerPlayer> pendingDeaths = new LinkedHashSet<>();
+    private static long cascadesResolved = 0;
+    private static long cascadeVictims = 0;
     
     // Cooldown to prevent spam damage from synchronized effects
     private static final Map<UUID, Long> damageCooldown = new ConcurrentHashMap<>();
     private static final long DAMAGE_COOLDOWN_MS = 50; // 50ms cooldown
+    
+    // How long an attacker that just propagated damage cannot trigger linked damage (PvP loop prevention)
+    private static final long PVP_LOOP_WINDOW_MS = 100;
 
     /**
      * Handle player damage - sync to all other players
@@ -59,8 +72,8 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Check if we're already processing damage for this player (prevent loops)
-        if (processingDamage.contains(damagedPlayer.getUUID())) {
+        // Damage applied by a link does not propagate again
+        if (propagating) {
             return;
         }
         
@@ -71,11 +84,8 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Get all online players
-        List<ServerPlayer> allPlayers = damagedPlayer.server.getPlayerList().getPlayers();
-        
         // Check minimum players requirement
-        if (allPlayers.size() < SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get()) {
+        if (!SoulLinkRoster.isActive()) {
             return;
         }
         
@@ -83,8 +93,9 @@ public class SoulLinkEventHandler {
         DamageSource source = event.getSource();
         Entity attacker = source.getEntity();
         if (SoulLinkConfig.PREVENT_PLAYER_VS_PLAYER_LOOP.get() && attacker instanceof Player) {
-            // If another player caused this damage, check if that player is currently processing damage
-            if (processingDamage.contains(((Player) attacker).getUUID())) {
+            // If another player caused this damage, check if that player just propagated damage
+            Long attackerDamageTime = damageCooldown.get(((Player) attacker).getUUID());
+            if (attackerDamageTime != null && currentTime - attackerDamageTime < PVP_LOOP_WINDOW_MS) {
                 return;
             }
         }
@@ -96,54 +107,38 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Mark this player as being processed
-        processingDamage.add(damagedPlayer.getUUID());
         damageCooldown.put(damagedPlayer.getUUID(), currentTime);
         
+        propagating = true;
         try {
             // Create a custom damage source for linked damage
             DamageSource linkedSource = damagedPlayer.level().damageSources().magic();
             
-            for (ServerPlayer otherPlayer : allPlayers) {
-                if (otherPlayer.getUUID().equals(damagedPlayer.getUUID())) {
+            LinkPlan plan = SoulLinkRoster.plan(damagedPlayer);
+            for (int i = 0; i < plan.size(); i++) {
+                ServerPlayer otherPlayer = plan.target(i);
+                float edgeDamage = linkedDamage * plan.multiplier(i, LinkStat.DAMAGE);
+                if (otherPlayer == damagedPlayer || edgeDamage <= 0) {
                     continue; // Skip the original damaged player
                 }
                 
-                if (otherPlayer.isDeadOrDying()) {
-                    continue; // Skip dead players
-                }
-                
-                // Mark other player as processing to prevent recursive loops
-                processingDamage.add(otherPlayer.getUUID());
                 damageCooldown.put(otherPlayer.getUUID(), currentTime);
                 
-                try {
-                    // Apply damage to linked player
-                    otherPlayer.hurt(linkedSource, linkedDamage);
-                    
-                    // Sync health to client
-                    SoulLinkNetwork.sendToPlayer(new SyncHealthPacket(otherPlayer.getHealth()), otherPlayer);
-                    
-                    if (SoulLinkConfig.SHOW_LINK_MESSAGES.get()) {
-                        otherPlayer.displayClientMessage(
-                                Component.literal("§c[Soul-Link] §7You felt §c" + damagedPlayer.getName().getString() + "'s§7 pain!"),
-                                true
-                        );
-                    }
-                } finally {
-                    processingDamage.remove(otherPlayer.getUUID());
+                // Apply damage to linked player
+                otherPlayer.hurt(linkedSource, edgeDamage);
+                
+                // Sync health to client
+                SoulLinkNetwork.sendToPlayer(new SyncHealthPacket(otherPlayer.getHealth()), otherPlayer);
+                
+                if (SoulLinkConfig.SHOW_LINK_MESSAGES.get() && SoulLinkGovernor.allowCosmetic()) {
+                    SoulLinkNetwork.sendFeedback(otherPlayer,
+                            Component.literal("§c[Soul-Link] §7You felt §c" + damagedPlayer.getName().getString() + "'s§7 pain!"),
+                            true
+                    );
                 }
             }
         } finally {
-            // Use a delayed removal to prevent rapid re-triggering
-            new Thread(() -> {
-                try {
-                    Thread.sleep(100);
-                    processingDamage.remove(damagedPlayer.getUUID());
-                } catch (InterruptedException e) {
-                    processingDamage.remove(damagedPlayer.getUUID());
-                }
-            }).start();
+            propagating = false;
         }
     }
 
@@ -160,16 +155,13 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Check if we're already processing healing for this player (prevent loops)
-        if (processingHealing.contains(healedPlayer.getUUID())) {
+        // Healing applied by a link does not propagate again
+        if (propagating) {
             return;
         }
         
-        // Get all online players
-        List<ServerPlayer> allPlayers = healedPlayer.server.getPlayerList().getPlayers();
-        
         // Check minimum players requirement
-        if (allPlayers.size() < SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get()) {
+        if (!SoulLinkRoster.isActive()) {
             return;
         }
         
@@ -180,41 +172,31 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Mark this player as being processed
-        processingHealing.add(healedPlayer.getUUID());
-        
+        propagating = true;
         try {
-            for (ServerPlayer otherPlayer : allPlayers) {
-                if (otherPlayer.getUUID().equals(healedPlayer.getUUID())) {
+            LinkPlan plan = SoulLinkRoster.plan(healedPlayer);
+            for (int i = 0; i < plan.size(); i++) {
+                ServerPlayer otherPlayer = plan.target(i);
+                float edgeHealing = linkedHealing * plan.multiplier(i, LinkStat.HEALING);
+                if (otherPlayer == healedPlayer || edgeHealing <= 0) {
                     continue; // Skip the original healed player
                 }
                 
-                if (otherPlayer.isDeadOrDying()) {
-                    continue; // Skip dead players
-                }
+                // Apply healing to linked player
+                otherPlayer.heal(edgeHealing);
                 
-                // Mark other player as processing
-                processingHealing.add(otherPlayer.getUUID());
+                // Sync health to client
+                SoulLinkNetwork.sendToPlayer(new SyncHealthPacket(otherPlayer.getHealth()), otherPlayer);
                 
-                try {
-                    // Apply healing to linked player
-                    otherPlayer.heal(linkedHealing);
-                    
-                    // Sync health to client
-                    SoulLinkNetwork.sendToPlayer(new SyncHealthPacket(otherPlayer.getHealth()), otherPlayer);
-                    
-                    if (SoulLinkConfig.SHOW_LINK_MESSAGES.get()) {
-                        otherPlayer.displayClientMessage(
-                                Component.literal("§a[Soul-Link] §7You felt §a" + healedPlayer.getName().getString() + "'s§7 vitality!"),
-                                true
-                        );
-                    }
-                } finally {
-                    processingHealing.remove(otherPlayer.getUUID());
+                if (SoulLinkConfig.SHOW_LINK_MESSAGES.get() && SoulLinkGovernor.allowCosmetic()) {
+                    SoulLinkNetwork.sendFeedback(otherPlayer,
+                            Component.literal("§a[Soul-Link] §7You felt §a" + healedPlayer.getName().getString() + "'s§7 vitality!"),
+                            true
+                    );
                 }
             }
         } finally {
-            processingHealing.remove(healedPlayer.getUUID());
+            propagating = false;
         }
     }
 
@@ -241,16 +223,13 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Check if we're already processing knockback for this player (prevent loops)
-        if (processingKnockback.contains(knockedPlayer.getUUID())) {
+        // Knockback applied by a link does not propagate again
+        if (propagating) {
             return;
         }
         
-        // Get all online players
-        List<ServerPlayer> allPlayers = knockedPlayer.server.getPlayerList().getPlayers();
-        
         // Check minimum players requirement
-        if (allPlayers.size() < SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get()) {
+        if (!SoulLinkRoster.isActive()) {
             return;
         }
         
@@ -268,24 +247,22 @@ public class SoulLinkEventHandler {
         
         Vec3 knockbackVec = new Vec3(-ratioX * horizontalStrength, verticalStrength, -ratioZ * horizontalStrength);
         
-        // Mark this player as being processed
-        processingKnockback.add(knockedPlayer.getUUID());
-        
+        propagating = true;
         try {
-            for (ServerPlayer otherPlayer : allPlayers) {
-                if (otherPlayer.getUUID().equals(knockedPlayer.getUUID())) {
+            LinkPlan plan = SoulLinkRoster.plan(knockedPlayer);
+            for (int i = 0; i < plan.size(); i++) {
+                ServerPlayer otherPlayer = plan.target(i);
+                float edgeMultiplier = plan.multiplier(i, LinkStat.KNOCKBACK);
+                if (otherPlayer == knockedPlayer || edgeMultiplier <= 0) {
                     continue; // Skip the original knocked player
                 }
                 
-                if (otherPlayer.isDeadOrDying()) {
-                    continue; // Skip dead players
-                }
-                
                 // Send knockback packet to the other player
-                SoulLinkNetwork.sendToPlayer(new KnockbackPacket(knockbackVec), otherPlayer);
+                Vec3 edgeKnockback = edgeMultiplier == 1.0f ? knockbackVec : knockbackVec.scale(edgeMultiplier);
+                SoulLinkNetwork.sendToPlayer(new KnockbackPacket(edgeKnockback), otherPlayer);
             }
         } finally {
-            processingKnockback.remove(knockedPlayer.getUUID());
+            propagating = false;
         }
     }
 
@@ -302,158 +279,98 @@ public class SoulLinkEventHandler {
             return;
         }
         
-        // Get all online players
-        List<ServerPlayer> allPlayers = deadPlayer.server.getPlayerList().getPlayers();
-        
-        // Check minimum players requirement
-        if (allPlayers.size() < SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get()) {
+        // Deaths caused by a link do not propagate again
+        if (propagating) {
             return;
         }
         
-        // Create a death source
-        DamageSource deathSource = deadPlayer.level().damageSources().magic();
+        // Another mod prevented the death
+        if (event.isCanceled()) {
+            return;
+        }
         
-        for (ServerPlayer otherPlayer : allPlayers) {
-            if (otherPlayer.getUUID().equals(deadPlayer.getUUID())) {
-                continue;
-            }
-            
-            if (otherPlayer.isDeadOrDying()) {
-                continue;
-            }
-            
-            // Mark as processing to prevent loops
-            processingDamage.add(otherPlayer.getUUID());
-            
-            try {
-                // Send death message
-                if (SoulLinkConfig.SHOW_LINK_MESSAGES.get()) {
-                    otherPlayer.displayClientMessage(
-                            Component.literal("§4[Soul-Link] §c" + deadPlayer.getName().getString() + " died. Your souls are linked in death!"),
-                            false
-                    );
-                }
-                
-                // Kill the linked player
-                otherPlayer.hurt(deathSource, Float.MAX_VALUE);
-            } finally {
-                processingDamage.remove(otherPlayer.getUUID());
-            }
+        // Check minimum players requirement
+        if (!SoulLinkRoster.isActive()) {
+            return;
         }
+        
+        // Resolved together with every other death of this tick
+        pendingDeaths.add(deadPlayer);
     }
 
     /**
-     * Track hunger changes every tick
+     * Resolve the shared-death cascade once per tick, after all deaths of the tick are known
      */
     @SubscribeEvent
-    public void onPlayerTick(TickEvent.PlayerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
-            return;
-        }
-        
-        if (!(event.player instanceof ServerPlayer serverPlayer)) {
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || pendingDeaths.isEmpty()) {
             return;
         }
         
-        if (!SoulLinkConfig.LINK_HUNGER.get() && !SoulLinkConfig.LINK_SATURATION.get()) {
+        Set<ServerPlayer> sources = new LinkedHashSet<>(pendingDeaths);
+        pendingDeaths.clear();
+        if (!SoulLinkConfig.SHARE_DEATH.get() || event.getServer() == null) {
             return;
         }
         
-        // Check if we're processing hunger for this player
-        if (processingHunger.contains(serverPlayer.getUUID())) {
-            return;
-        }
-        
-        UUID playerId = serverPlayer.getUUID();
-        int currentFoodLevel = serverPlayer.getFoodData().getFoodLevel();
-        float currentSaturation = serverPlayer.getFoodData().getSaturationLevel();
-        
-        // Get previous values (defaults if not tracked yet)
-        int prevFood = previousFoodLevel.getOrDefault(playerId, currentFoodLevel);
-        float prevSat = previousSaturation.getOrDefault(playerId, currentSaturation);
-        
-        // Calculate changes
-        int foodChange = currentFoodLevel - prevFood;
-        float satChange = currentSaturation - prevSat;
-        
-        // Update stored values
-        previousFoodLevel.put(playerId, currentFoodLevel);
-        previousSaturation.put(playerId, currentSaturation);
-        
-        // Only proceed if there's a change
-        if (foodChange == 0 && Math.abs(satChange) < 0.001f) {
-            return;
+        // Decide every victim first: shared death follows damage links, and each player dies once
+        Map<ServerPlayer, ServerPlayer> victims = new LinkedHashMap<>();
+        for (ServerPlayer deadPlayer : sources) {
+            LinkPlan plan = SoulLinkRoster.plan(deadPlayer);
+            for (int i = 0; i < plan.size(); i++) {
+                ServerPlayer otherPlayer = plan.target(i);
+                if (plan.multiplier(i, LinkStat.DAMAGE) <= 0 || otherPlayer.isDeadOrDying() || sources.contains(otherPlayer)) {
+                    continue;
+                }
+                victims.putIfAbsent(otherPlayer, deadPlayer);
+            }
         }
-        
-        // Get all online players
-        List<ServerPlayer> allPlayers = serverPlayer.server.getPlayerList().getPlayers();
-        
-        // Check minimum players requirement
-        if (allPlayers.size() < SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get()) {
+        if (victims.isEmpty()) {
             return;
         }
         
-        // Apply multiplier
-        float multiplier = SoulLinkConfig.HUNGER_MULTIPLIER.get().floatValue();
-        int linkedFoodChange = Math.round(foodChange * multiplier);
-        float linkedSatChange = satChange * multiplier;
-        
-        // Mark this player as processing
-        processingHunger.add(playerId);
-        
+        // Kill them in one batch; their own death events see the flag and do not cascade again
+        propagating = true;
         try {
-            for (ServerPlayer otherPlayer : allPlayers) {
-                if (otherPlayer.getUUID().equals(playerId)) {
-                    continue;
-                }
-                
-                if (otherPlayer.isDeadOrDying()) {
-                    continue;
+            SoulLinkRoster.batch(event.getServer(), () -> victims.forEach((otherPlayer, deadPlayer) -> {
+                // Send death message
+                if (SoulLinkConfig.SHOW_LINK_MESSAGES.get()) {
+                    SoulLinkNetwork.sendFeedback(otherPlayer,
+                            Component.literal("§4[Soul-Link] §c" + deadPlayer.getName().getString() + " died. Your souls are linked in death!"),
+                            false
+                    );
                 }
                 
-                // Mark other player as processing
-                processingHunger.add(otherPlayer.getUUID());
-                
-                try {
-                    // Apply hunger changes
-                    if (SoulLinkConfig.LINK_HUNGER.get() && linkedFoodChange != 0) {
-                        int newFoodLevel = Math.max(0, Math.min(20, 
-                                otherPlayer.getFoodData().getFoodLevel() + linkedFoodChange));
-                        otherPlayer.getFoodData().setFoodLevel(newFoodLevel);
-                        
-                        // Update tracked value for the other player
-                        previousFoodLevel.put(otherPlayer.getUUID(), newFoodLevel);
-                    }
-                    
-                    if (SoulLinkConfig.LINK_SATURATION.get() && Math.abs(linkedSatChange) > 0.001f) {
-                        float newSaturation = Math.max(0, Math.min(20, 
-                                otherPlayer.getFoodData().getSaturationLevel() + linkedSatChange));
-                        otherPlayer.getFoodData().setSaturation(newSaturation);
-                        
-                        // Update tracked value
-                        previousSaturation.put(otherPlayer.getUUID(), newSaturation);
-                    }
-                    
-                    // Sync hunger to client
-                    SoulLinkNetwork.sendToPlayer(new SyncHungerPacket(
-                            otherPlayer.getFoodData().getFoodLevel(),
-                            otherPlayer.getFoodData().getSaturationLevel()
-                    ), otherPlayer);
-                    
-                    // Show message for significant changes
-                    if (SoulLinkConfig.SHOW_LINK_MESSAGES.get() && Math.abs(linkedFoodChange) >= 1) {
-                        String message = linkedFoodChange > 0 
-                                ? "§a[Soul-Link] §7You shared §a" + serverPlayer.getName().getString() + "'s§7 meal!"
-                                : "§6[Soul-Link] §7You felt §6" + serverPlayer.getName().getString() + "'s§7 hunger!";
-                        otherPlayer.displayClientMessage(Component.literal(message), true);
-                    }
-                } finally {
-                    processingHunger.remove(otherPlayer.getUUID());
-                }
-            }
+                // Kill the linked player
+                otherPlayer.hurt(soulLinkDeath(otherPlayer), Float.MAX_VALUE);
+            }));
         } finally {
-            processingHunger.remove(playerId);
+            propagating = false;
         }
+        
+        cascadesResolved++;
+        cascadeVictims += victims.size();
+        
+        // Everyone respawns into the same shared inventory - build that sync once, ahead of the wave
+        SharedInventoryManager.prepareRespawnSnapshot();
+    }
+
+    /**
+     * Damage source of the dedicated soul link damage type (bypasses armor, shields and resistance),
+     * or magic damage if a datapack removed the type
+     */
+    private static DamageSource soulLinkDeath(ServerPlayer player) {
+        return player.level().registryAccess().registryOrThrow(Registries.DAMAGE_TYPE)
+                .getHolder(SOUL_LINK_DAMAGE)
+                .map(DamageSource::new)
+                .orElseGet(() -> player.level().damageSources().magic());
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%d shared-death cascade(s) resolved, %d linked death(s)", cascadesResolved, cascadeVictims);
     }
 
     /**
@@ -462,25 +379,16 @@ public class SoulLinkEventHandler {
     @SubscribeEvent
     public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
         UUID playerId = event.getEntity().getUUID();
-        previousFoodLevel.remove(playerId);
-        previousSaturation.remove(playerId);
-        processingDamage.remove(playerId);
-        processingHealing.remove(playerId);
-        processingKnockback.remove(playerId);
-        processingHunger.remove(playerId);
         damageCooldown.remove(playerId);
+        pendingDeaths.remove(event.getEntity());
     }
 
     /**
-     * Initialize player tracking when they log in
+     * Welcome players when they log in
      */
     @SubscribeEvent
     public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
         if (event.getEntity() instanceof ServerPlayer serverPlayer) {
-            UUID playerId = serverPlayer.getUUID();
-            previousFoodLevel.put(playerId, serverPlayer.getFoodData().getFoodLevel());
-            previousSaturation.put(playerId, serverPlayer.getFoodData().getSaturationLevel());
-            
             // Send welcome message
             if (SoulLinkConfig.SHOW_LINK_MESSAGES.get()) {
                 int playerCount = serverPlayer.server.getPlayerList().getPlayers().size();
@@ -0,0 +1,327 @@
+package com.jellycreative.soullink.handler;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.config.SoulLinkConfig.LinkScope;
+import com.jellycreative.soullink.link.LinkGraph;
+import com.jellycreative.soullink.link.LinkPlan;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.GameType;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roster of the players that currently receive linked effects.
+ *
+ * Rebuilt on the (rare) membership events - join, leave, death, respawn, gamemode and
+ * dimension change - instead of filtering the full player list on every damage, heal,
+ * knockback and hunger event. Eligible members are alive and not spectating.
+ *
+ * Every rebuild publishes a new array, so a fan-out loop that causes a membership change
+ * (a linked death) keeps iterating the array it started with.
+ *
+ * Links defined in the {@link LinkGraph} are compiled into per-player plans on every rebuild.
+ *
+ * With a DIMENSION or RADIUS link scope, {@link #linkedTo} only returns members the source can
+ * reach. Members are grouped per dimension on rebuild; for RADIUS they are also bucketed into
+ * a spatial hash of linkRadius-sized cells once per tick, so a query only visits the 3x3 cells
+ * around the source instead of every member.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkRoster {
+
+    private static final ServerPlayer[] EMPTY = new ServerPlayer[0];
+
+    // Only replaced on the server thread
+    private static volatile ServerPlayer[] members = EMPTY;
+    private static volatile int onlineCount = 0;
+    private static Map<ResourceKey<Level>, ServerPlayer[]> byDimension = Map.of();
+
+    // Spatial hash for RADIUS scope: dimension -> packed cell coordinates -> members (server thread only)
+    private static final Map<ResourceKey<Level>, Map<Long, List<ServerPlayer>>> cells = new HashMap<>();
+    private static double cellSize = 1.0;
+
+    // Rebuilds requested during batch() are collapsed into one at the end (server thread only)
+    private static boolean batching = false;
+    private static boolean rebuildPending = false;
+
+    // Stats
+    private static long rebuilds = 0;
+    private static long scopedQueries = 0;
+    private static long candidatesVisited = 0;
+
+    /**
+     * Eligible linked players. The array is shared and must not be modified.
+     */
+    public static ServerPlayer[] members() {
+        return members;
+    }
+
+    /**
+     * Whether enough players are online for the link to be active
+     */
+    public static boolean isActive() {
+        return onlineCount >= SoulLinkConfig.MIN_PLAYERS_FOR_LINK.get();
+    }
+
+    public static int onlineCount() {
+        return onlineCount;
+    }
+
+    /**
+     * Members the source player's linked effects reach under the configured link scope.
+     * May include the source itself; the array must not be modified.
+     */
+    public static ServerPlayer[] linkedTo(ServerPlayer source) {
+        LinkScope scope = SoulLinkConfig.LINK_SCOPE.get();
+        if (scope == LinkScope.GLOBAL) {
+            return members;
+        }
+
+        scopedQueries++;
+        ResourceKey<Level> dimension = source.level().dimension();
+        if (scope == LinkScope.DIMENSION) {
+            return byDimension.getOrDefault(dimension, EMPTY);
+        }
+
+        Map<Long, List<ServerPlayer>> dimensionCells = cells.get(dimension);
+        if (dimensionCells == null) {
+            return EMPTY;
+        }
+
+        double radius = SoulLinkConfig.LINK_RADIUS.get();
+        double radiusSqr = radius * radius;
+        int cellX = Mth.floor(source.getX() / cellSize);
+        int cellZ = Mth.floor(source.getZ() / cellSize);
+        List<ServerPlayer> nearby = new ArrayList<>();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                List<ServerPlayer> cell = dimensionCells.get(cellKey(cellX + dx, cellZ + dz));
+                if (cell == null) continue;
+                for (ServerPlayer player : cell) {
+                    candidatesVisited++;
+                    if (player.distanceToSqr(source) <= radiusSqr) {
+                        nearby.add(player);
+                    }
+                }
+            }
+        }
+        return nearby.toArray(EMPTY);
+    }
+
+    /**
+     * Propagation plan for the source player: its graph links when any are defined,
+     * otherwise every member it reaches under the link scope, at full strength
+     */
+    public static LinkPlan plan(ServerPlayer source) {
+        if (!LinkGraph.hasLinks()) {
+            return LinkPlan.uniform(linkedTo(source));
+        }
+
+        LinkPlan plan = LinkGraph.planFor(source);
+        LinkScope scope = SoulLinkConfig.LINK_SCOPE.get();
+        if (scope == LinkScope.GLOBAL || plan.size() == 0) {
+            return plan;
+        }
+
+        scopedQueries++;
+        double radius = SoulLinkConfig.LINK_RADIUS.get();
+        double radiusSqr = radius * radius;
+        return plan.filter(target -> target.level() == source.level()
+                && (scope == LinkScope.DIMENSION || target.distanceToSqr(source) <= radiusSqr));
+    }
+
+    /**
+     * Rebuild from the player list.
+     *
+     * @param changed a player whose membership is decided by the caller (it is about to leave,
+     *                die or change gamemode), or null
+     * @param changedEligible whether that player is eligible
+     * @param leaving whether that player is about to leave the player list
+     */
+    private static void rebuild(MinecraftServer server, ServerPlayer changed, boolean changedEligible, boolean leaving) {
+        if (server == null) return;
+        if (batching) {
+            // The player list and entity states are final by the end of the batch
+            rebuildPending = true;
+            return;
+        }
+
+        List<ServerPlayer> players = server.getPlayerList().getPlayers();
+        List<ServerPlayer> online = new ArrayList<>(players.size());
+        List<ServerPlayer> eligible = new ArrayList<>(players.size());
+        for (ServerPlayer player : players) {
+            if (player == changed) {
+                if (!leaving) online.add(player);
+                if (changedEligible) eligible.add(player);
+                continue;
+            }
+            online.add(player);
+            if (isEligible(player)) {
+                eligible.add(player);
+            }
+        }
+
+        Map<ResourceKey<Level>, List<ServerPlayer>> grouped = new HashMap<>();
+        for (ServerPlayer player : eligible) {
+            grouped.computeIfAbsent(player.level().dimension(), key -> new ArrayList<>()).add(player);
+        }
+        Map<ResourceKey<Level>, ServerPlayer[]> dimensions = new HashMap<>();
+        grouped.forEach((dimension, dimensionMembers) -> dimensions.put(dimension, dimensionMembers.toArray(EMPTY)));
+
+        members = eligible.toArray(EMPTY);
+        byDimension = dimensions;
+        onlineCount = online.size();
+        rebuilds++;
+        updateCells();
+        LinkGraph.compile(online, members);
+    }
+
+    /**
+     * Re-bucket members into the spatial hash (RADIUS scope only)
+     */
+    private static void updateCells() {
+        cells.clear();
+        if (SoulLinkConfig.LINK_SCOPE.get() != LinkScope.RADIUS) {
+            return;
+        }
+
+        cellSize = SoulLinkConfig.LINK_RADIUS.get();
+        for (ServerPlayer player : members) {
+            long key = cellKey(Mth.floor(player.getX() / cellSize), Mth.floor(player.getZ() / cellSize));
+            cells.computeIfAbsent(player.level().dimension(), dimension -> new HashMap<>())
+                    .computeIfAbsent(key, cell -> new ArrayList<>(2))
+                    .add(player);
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static void rebuild(MinecraftServer server) {
+        rebuild(server, null, false, false);
+    }
+
+    /**
+     * Run a batch of membership changes (a shared-death wave) with a single rebuild at the end.
+     * Must only contain deaths and other changes the player list reflects once they are done.
+     */
+    public static void batch(MinecraftServer server, Runnable changes) {
+        if (batching) {
+            changes.run();
+            return;
+        }
+
+        batching = true;
+        try {
+            changes.run();
+        } finally {
+            batching = false;
+            if (rebuildPending) {
+                rebuildPending = false;
+                rebuild(server);
+            }
+        }
+    }
+
+    private static boolean isEligible(ServerPlayer player) {
+        return !player.isDeadOrDying() && !player.isSpectator();
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%d linked of %d online (active: %s), %d rebuild(s), scope %s, %d cell(s), %d scoped queries visiting %d candidate(s)",
+                members.length, onlineCount, isActive(), rebuilds, SoulLinkConfig.LINK_SCOPE.get(),
+                cells.values().stream().mapToInt(Map::size).sum(), scopedQueries, candidatesVisited);
+    }
+
+    /**
+     * Refresh the spatial hash from this tick's starting positions
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) return;
+        if (members.length == 0 && cells.isEmpty()) return;
+
+        updateCells();
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            rebuild(player.server);
+        }
+    }
+
+    /**
+     * Fired before the player is removed from the player list
+     */
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            rebuild(player.server, player, false, true);
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLivingDeath(LivingDeathEvent event) {
+        if (event.isCanceled()) return;
+        if (event.getEntity() instanceof ServerPlayer player) {
+            rebuild(player.server, player, false, false);
+        }
+    }
+
+    /**
+     * Respawning replaces the player entity, so the roster must pick up the new one
+     */
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            rebuild(player.server);
+        }
+    }
+
+    /**
+     * Fired before the gamemode is applied
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onGameModeChange(PlayerEvent.PlayerChangeGameModeEvent event) {
+        if (event.isCanceled()) return;
+        if (event.getEntity() instanceof ServerPlayer player) {
+            boolean eligible = !player.isDeadOrDying() && event.getNewGameMode() != GameType.SPECTATOR;
+            rebuild(player.server, player, eligible, false);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            rebuild(player.server);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        members = EMPTY;
+        byDimension = Map.of();
+        onlineCount = 0;
+        cells.clear();
+    }
+}
@@ -2,6 +2,9 @@ package com.jellycreative.soullink.inventory;
 
 import com.jellycreative.soullink.SoulLink;
 import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import com.jellycreative.soullink.util.SoulLinkWorkQueue;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.item.ItemEntity;
@@ -15,7 +18,13 @@ import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -24,23 +33,51 @@ import java.util.concurrent.ConcurrentHashMap;
  * Handles all inventory-related events and triggers synchronization.
  * 
  * IMPORTANT: This version includes fixes for duplication and item loss bugs:
- * - Tracks container open/close to prevent sync during transactions
+ * - Tracks container open/close so slots touched mid-transaction are leased, not synced
  * - Delays sync after container close to ensure all changes are complete
  * - Uses longer sync intervals to reduce race conditions
+ * 
+ * Periodic checks are spread over a wheel of per-tick buckets, so the per-tick cost stays flat,
+ * and each player's interval follows their recent inventory activity.
  */
 @Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
 public class SharedInventoryEventHandler {
     
-    // Track tick counter per player for periodic sync checks
-    private static final Map<UUID, Integer> tickCounter = new ConcurrentHashMap<>();
+    // How often to check for inventory changes (in ticks): active players often, idle players rarely
+    private static final int MIN_CHECK_INTERVAL = 10; // Every 10 ticks (0.5 seconds)
+    private static final int MAX_CHECK_INTERVAL = 80; // Every 80 ticks (4 seconds)
+    
+    // Check wheel: bucket (tick % WHEEL_SIZE) holds the players due on that tick (server thread only).
+    // Intervals longer than the wheel simply stay in their bucket until they are due.
+    private static final int WHEEL_SIZE = 128;
+    private static final List<Set<UUID>> checkWheel = new ArrayList<>(WHEEL_SIZE);
+    private static final Map<UUID, CheckSchedule> checkSchedules = new HashMap<>();
     
-    // How often to check for inventory changes (in ticks) - increased to reduce conflicts
-    private static final int SYNC_CHECK_INTERVAL = 10; // Every 10 ticks (0.5 seconds)
+    static {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            checkWheel.add(new LinkedHashSet<>());
+        }
+    }
+    
+    private static class CheckSchedule {
+        long due;
+        int interval = MIN_CHECK_INTERVAL;
+    }
     
     // Delay after container close before syncing (in ticks)
     private static final int CONTAINER_CLOSE_DELAY = 5;
     private static final Map<UUID, Integer> containerCloseDelay = new ConcurrentHashMap<>();
     
+    // Players who picked up items this tick - merged together once at the end of the tick
+    private static final Set<UUID> pendingPickups = ConcurrentHashMap.newKeySet();
+    
+    // Players waiting for their join sync (server thread only). The syncs run from the
+    // deferred work queue, so a reconnect wave after a restart is spread over ticks.
+    private static final Set<UUID> pendingJoins = new HashSet<>();
+    
+    // Respawned players waiting for their inventory restore (server thread only)
+    private static final Set<ServerPlayer> pendingRespawns = new LinkedHashSet<>();
+    
     // Track if we need to save
     private static int saveTickCounter = 0;
     private static final int SAVE_INTERVAL = 200; // Every 10 seconds (200 ticks)
@@ -53,9 +90,15 @@ public class SharedInventoryEventHandler {
         if (!SoulLinkConfig.LINK_INVENTORY.get()) return;
         
         if (event.getEntity() instanceof ServerPlayer player) {
-            // Small delay to ensure player is fully loaded
-            player.server.execute(() -> {
-                SharedInventoryManager.onPlayerJoin(player);
+            // Applied from the deferred work queue, once the player is fully loaded
+            UUID playerId = player.getUUID();
+            MinecraftServer server = player.server;
+            pendingJoins.add(playerId);
+            SoulLinkWorkQueue.submit(SoulLinkWorkQueue.Priority.HIGH, List.of("join", playerId), () -> {
+                ServerPlayer joined = server.getPlayerList().getPlayer(playerId);
+                if (pendingJoins.remove(playerId) && joined != null) {
+                    SharedInventoryManager.onPlayerJoin(joined);
+                }
             });
         }
     }
@@ -67,8 +110,11 @@ public class SharedInventoryEventHandler {
     public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
         if (event.getEntity() instanceof ServerPlayer player) {
             SharedInventoryManager.onPlayerLeave(player);
-            tickCounter.remove(player.getUUID());
+            unscheduleCheck(player.getUUID());
             containerCloseDelay.remove(player.getUUID());
+            pendingPickups.remove(player.getUUID());
+            pendingJoins.remove(player.getUUID());
+            pendingRespawns.remove(player);
             
             // Save the shared inventory when a player leaves
             if (SoulLinkConfig.LINK_INVENTORY.get()) {
@@ -95,25 +141,22 @@ public class SharedInventoryEventHandler {
     }
 
     /**
-     * Handle item pickup - sync after a short delay
+     * Handle item pickup - record the player, the merge runs once at the end of the tick
      */
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public static void onItemPickup(EntityItemPickupEvent event) {
         if (!SoulLinkConfig.LINK_INVENTORY.get()) return;
+        if (event.isCanceled()) return;
         
         if (event.getEntity() instanceof ServerPlayer player) {
-            // Don't sync if player has container open
-            if (SharedInventoryManager.hasContainerOpen(player)) {
+            // Not joined yet - the join sync will overwrite the inventory anyway
+            if (pendingJoins.contains(player.getUUID())) {
                 return;
             }
             
-            // Sync after the item is picked up (with delay to ensure it's in inventory)
-            player.server.execute(() -> {
-                // Double-check container status after delay
-                if (!SharedInventoryManager.hasContainerOpen(player)) {
-                    SharedInventoryManager.onPlayerInventoryChanged(player);
-                }
-            });
+            // The item is not in the inventory yet - it is by the end of the tick.
+            // Slots leased by an open container are skipped by the merge itself.
+            pendingPickups.add(player.getUUID());
         }
     }
 
@@ -149,39 +192,107 @@ public class SharedInventoryEventHandler {
         
         UUID playerId = player.getUUID();
         
+        // The inventory is not linked until the join sync ran - never merge it before that
+        if (pendingJoins.contains(playerId)) {
+            return;
+        }
+        
         // Handle delayed sync after container close
         Integer closeDelay = containerCloseDelay.get(playerId);
         if (closeDelay != null) {
             if (closeDelay <= 0) {
                 containerCloseDelay.remove(playerId);
-                // Only sync if player doesn't have another container open now
-                if (!SharedInventoryManager.hasContainerOpen(player) && 
-                    !SharedInventoryManager.isHoldingCursorItem(player)) {
-                    SharedInventoryManager.onPlayerInventoryChanged(player);
-                }
+                MinecraftServer server = player.server;
+                SoulLinkWorkQueue.submit(SoulLinkWorkQueue.Priority.HIGH, List.of("close", playerId), () -> {
+                    // Looked up again: a respawn since queueing replaced the player entity
+                    ServerPlayer target = server.getPlayerList().getPlayer(playerId);
+                    // Only sync if player doesn't have another container open now
+                    if (target != null &&
+                        !SharedInventoryManager.hasContainerOpen(target) && 
+                        !SharedInventoryManager.isHoldingCursorItem(target)) {
+                        SharedInventoryManager.onPlayerInventoryChanged(target);
+                    }
+                });
             } else {
                 containerCloseDelay.put(playerId, closeDelay - 1);
             }
             return; // Don't do regular sync check while waiting for container close delay
         }
         
-        // Skip periodic checks if player has container open or is holding cursor item
-        if (SharedInventoryManager.hasContainerOpen(player)) {
-            return;
-        }
-        if (SharedInventoryManager.isHoldingCursorItem(player)) {
-            return;
+        // Periodic checks run from the server tick; make sure this player is on the wheel.
+        // They keep running with a container open - only leased slots are held back.
+        if (!checkSchedules.containsKey(playerId)) {
+            CheckSchedule schedule = new CheckSchedule();
+            checkSchedules.put(playerId, schedule);
+            scheduleCheck(playerId, schedule, player.server.getTickCount());
         }
+    }
+
+    /**
+     * Run the periodic checks due on this tick and reschedule each player by their activity
+     */
+    private static void runDueChecks(MinecraftServer server) {
+        long tick = server.getTickCount();
+        Set<UUID> bucket = checkWheel.get((int) (tick % WHEEL_SIZE));
+        if (bucket.isEmpty()) return;
         
-        int ticks = tickCounter.getOrDefault(playerId, 0) + 1;
+        List<UUID> due = new ArrayList<>(bucket.size());
+        for (UUID playerId : bucket) {
+            CheckSchedule schedule = checkSchedules.get(playerId);
+            if (schedule == null || schedule.due <= tick) {
+                due.add(playerId);
+            }
+        }
         
-        if (ticks >= SYNC_CHECK_INTERVAL) {
-            ticks = 0;
-            // Check for inventory changes
-            SharedInventoryManager.onPlayerInventoryChanged(player);
+        for (UUID playerId : due) {
+            bucket.remove(playerId);
+            CheckSchedule schedule = checkSchedules.get(playerId);
+            ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+            if (schedule == null || player == null) {
+                checkSchedules.remove(playerId);
+                continue;
+            }
+            
+            // Joins and container closes have their own sync - just keep the player on the wheel
+            if (!pendingJoins.contains(playerId) && !containerCloseDelay.containsKey(playerId)) {
+                boolean active = SharedInventoryManager.onPlayerInventoryChanged(player);
+                // Active players snap back to the shortest interval, idle ones back off gradually
+                schedule.interval = active
+                        ? MIN_CHECK_INTERVAL
+                        : Math.min(MAX_CHECK_INTERVAL, schedule.interval + schedule.interval / 2);
+            }
+            
+            scheduleCheck(playerId, schedule, tick);
+        }
+    }
+
+    /**
+     * Put a player in the emptiest bucket near their next due tick, so checks stay spread evenly
+     */
+    private static void scheduleCheck(UUID playerId, CheckSchedule schedule, long now) {
+        // Checks back off while the server is behind
+        int interval = SoulLinkGovernor.interval(schedule.interval);
+        long earliest = now + Math.max(1, interval - interval / 4);
+        long best = earliest;
+        int bestSize = Integer.MAX_VALUE;
+        for (long candidate = earliest; candidate <= now + interval; candidate++) {
+            int size = checkWheel.get((int) (candidate % WHEEL_SIZE)).size();
+            if (size < bestSize) {
+                best = candidate;
+                bestSize = size;
+                if (size == 0) break;
+            }
         }
         
-        tickCounter.put(playerId, ticks);
+        schedule.due = best;
+        checkWheel.get((int) (best % WHEEL_SIZE)).add(playerId);
+    }
+
+    private static void unscheduleCheck(UUID playerId) {
+        CheckSchedule schedule = checkSchedules.remove(playerId);
+        if (schedule != null) {
+            checkWheel.get((int) (schedule.due % WHEEL_SIZE)).remove(playerId);
+        }
     }
 
     /**
@@ -192,9 +303,19 @@ public class SharedInventoryEventHandler {
         if (event.phase != TickEvent.Phase.END) return;
         if (!SoulLinkConfig.LINK_INVENTORY.get()) return;
         
+        long start = SoulLinkGovernor.begin();
+        
+        if (!pendingPickups.isEmpty() && event.getServer() != null) {
+            flushPendingPickups(event.getServer());
+        }
+        
+        if (event.getServer() != null) {
+            runDueChecks(event.getServer());
+        }
+        
         saveTickCounter++;
         
-        if (saveTickCounter >= SAVE_INTERVAL) {
+        if (saveTickCounter >= SoulLinkGovernor.interval(SAVE_INTERVAL)) {
             saveTickCounter = 0;
             
             // Save shared inventory periodically
@@ -205,6 +326,24 @@ public class SharedInventoryEventHandler {
                 }
             }
         }
+        
+        SoulLinkGovernor.end(start);
+    }
+
+    /**
+     * Merge every pickup recorded this tick in one pass
+     */
+    private static void flushPendingPickups(MinecraftServer server) {
+        List<ServerPlayer> players = new ArrayList<>(pendingPickups.size());
+        for (UUID playerId : pendingPickups) {
+            ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                players.add(player);
+            }
+        }
+        pendingPickups.clear();
+        
+        SharedInventoryManager.onPlayersPickedUp(players);
     }
 
     /**
@@ -216,9 +355,17 @@ public class SharedInventoryEventHandler {
         if (!SoulLinkConfig.KEEP_INVENTORY_ON_DEATH.get()) return;
         
         if (event.getEntity() instanceof ServerPlayer player) {
-            // Restore shared inventory after respawn
-            player.server.execute(() -> {
-                SharedInventoryManager.applyToPlayer(player);
+            // Restore shared inventory after respawn; a respawn wave is restored in one task
+            pendingRespawns.add(player);
+            SoulLinkWorkQueue.submit(SoulLinkWorkQueue.Priority.HIGH, "respawn", () -> {
+                List<ServerPlayer> respawned = new ArrayList<>(pendingRespawns.size());
+                for (ServerPlayer respawnedPlayer : pendingRespawns) {
+                    if (!respawnedPlayer.hasDisconnected()) {
+                        respawned.add(respawnedPlayer);
+                    }
+                }
+                pendingRespawns.clear();
+                SharedInventoryManager.applyToPlayers(respawned);
             });
         }
     }
@@ -237,17 +384,19 @@ public class SharedInventoryEventHandler {
     }
 
     /**
-     * Save the shared inventory to world data
+     * Save the shared inventory to world data (deferred; saves requested meanwhile collapse into one)
      */
     private static void saveSharedInventory(ServerLevel level) {
         if (level == null) return;
         
-        try {
-            SharedInventorySavedData data = SharedInventorySavedData.get(level);
-            data.markDirty();
-        } catch (Exception e) {
-            SoulLink.LOGGER.error("Failed to save shared inventory: {}", e.getMessage());
-        }
+        SoulLinkWorkQueue.submit(SoulLinkWorkQueue.Priority.LOW, "save", () -> {
+            try {
+                SharedInventorySavedData data = SharedInventorySavedData.get(level);
+                data.markDirty();
+            } catch (Exception e) {
+                SoulLink.LOGGER.error("Failed to save shared inventory: {}", e.getMessage());
+            }
+        });
     }
 
     /**
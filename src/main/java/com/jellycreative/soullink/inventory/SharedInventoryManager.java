@@ -2,8 +2,13 @@ package com.jellycreative.soullink.inventory;
 
 import com.jellycreative.soullink.SoulLink;
 import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.network.InventoryHashPacket;
+import com.jellycreative.soullink.network.NestedItemDelta;
 import com.jellycreative.soullink.network.SoulLinkNetwork;
 import com.jellycreative.soullink.network.SyncInventoryPacket;
+import com.jellycreative.soullink.util.SoulLinkExecutor;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import com.jellycreative.soullink.util.SoulLinkWorkQueue;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.server.MinecraftServer;
@@ -11,15 +16,22 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.inventory.InventoryMenu;
+import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.event.server.ServerStartedEvent;
-import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.server.ServerLifecycleHooks;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -38,7 +50,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * - 40: Offhand
  * 
  * IMPORTANT: This version includes fixes for duplication and item loss bugs:
- * - Players with open containers (crafting tables, furnaces, etc.) are excluded from sync
+ * - Players with open containers (crafting tables, furnaces, etc.) hold leases on the slots
+ *   their menu touched; every other slot keeps syncing
  * - Debouncing prevents rapid sync conflicts
  * - Cursor items are handled properly
  * - Version tracking prevents stale data overwrites
@@ -66,6 +79,13 @@ public class SharedInventoryManager {
     private static final AtomicLong globalSyncVersion = new AtomicLong(0);
     private static final ConcurrentHashMap<UUID, Long> playerSyncVersion = new ConcurrentHashMap<>();
     
+    // Slots both a player and the shared inventory changed between syncs
+    private static final AtomicLong mergeConflicts = new AtomicLong(0);
+    
+    // Transmission counters - one packet per apply, one entry per changed slot
+    private static final AtomicLong inventoryPacketsSent = new AtomicLong(0);
+    private static final AtomicLong inventorySlotsSent = new AtomicLong(0);
+    
     // Lock object for thread-safe operations
     private static final Object inventoryLock = new Object();
     
@@ -83,6 +103,49 @@ public class SharedInventoryManager {
     public static final int ARMOR_START = 36;
     public static final int ARMOR_END = 39;
     public static final int OFFHAND_SLOT = 40;
+    
+    // Per-slot change counters and the cached NBT written for each slot at a given version.
+    // Saves only re-encode slots whose version moved since the last save.
+    private static final int[] slotVersions = new int[INVENTORY_SIZE];
+    private static final CompoundTag[] encodedSlots = new CompoundTag[INVENTORY_SIZE];
+    private static final int[] encodedSlotVersions = new int[INVENTORY_SIZE];
+    private static final byte[][] encodedSlotPayloads = new byte[INVENTORY_SIZE][];
+    private static final int[] encodedPayloadVersions = new int[INVENTORY_SIZE];
+    
+    // Slots loaded from disk but not decoded into ItemStacks yet. A pending slot's raw form is
+    // its cached tag (NBT loads) or its snapshot payload (binary loads); it is decoded on first access.
+    private static final boolean[] pendingSlots = new boolean[INVENTORY_SIZE];
+    private static final ByteBuffer[] pendingSlotPayloads = new ByteBuffer[INVENTORY_SIZE];
+    private static volatile int pendingSlotCount = 0;
+    
+    // The stack each slot held before its last change, and the nested-item delta between the two.
+    // Players still holding the previous stack get the delta instead of the whole slot.
+    private static final ItemStack[] previousSlots = new ItemStack[INVENTORY_SIZE];
+    private static final NestedItemDelta[] nestedDeltas = new NestedItemDelta[INVENTORY_SIZE];
+    private static final int[] nestedDeltaVersions = new int[INVENTORY_SIZE];
+    private static final AtomicLong nestedDeltasSent = new AtomicLong(0);
+    
+    // Per-slot hashes of the canonical stacks as clients see them, for anti-entropy reports
+    private static final int[] slotHashes = new int[INVENTORY_SIZE];
+    private static final int[] slotHashVersions = new int[INVENTORY_SIZE];
+    private static final AtomicLong hashReports = new AtomicLong(0);
+    private static final AtomicLong slotsRepaired = new AtomicLong(0);
+    
+    // Bumped with every slot version, so one number identifies the canonical contents
+    private static long contentRevision = 0;
+    
+    // Full 41-slot packet of the canonical inventory, reused for joins and large catch-ups until
+    // the contents change. The packet keeps its encoded bytes, so it is also encoded only once.
+    private static SyncInventoryPacket fullSnapshotPacket;
+    private static long fullSnapshotRevision = -1;
+    private static final AtomicLong fullSnapshotBuilds = new AtomicLong(0);
+    private static final AtomicLong fullSnapshotReuses = new AtomicLong(0);
+    
+    // Sequence of the last binary snapshot, so every snapshot write is ordered
+    private static final AtomicLong snapshotSequence = new AtomicLong(0);
+    
+    // Save format: 1 = every slot written (legacy), 2 = only non-empty slots
+    private static final int SAVE_FORMAT_VERSION = 2;
 
     static {
         // Initialize with empty stacks
@@ -93,10 +156,119 @@ public class SharedInventoryManager {
         sharedInventory.clear();
         for (int i = 0; i < INVENTORY_SIZE; i++) {
             sharedInventory.add(ItemStack.EMPTY);
+            slotVersions[i]++;
+            contentRevision++;
+            encodedSlots[i] = null;
+            encodedSlotVersions[i] = -1;
+            encodedSlotPayloads[i] = null;
+            encodedPayloadVersions[i] = -1;
+            pendingSlots[i] = false;
+            pendingSlotPayloads[i] = null;
+            previousSlots[i] = null;
+            nestedDeltas[i] = null;
+            nestedDeltaVersions[i] = -1;
+            slotHashVersions[i] = -1;
         }
+        pendingSlotCount = 0;
         initialized = true;
     }
 
+    /**
+     * Get a canonical slot, decoding it first if it is still in its on-disk form
+     */
+    private static ItemStack sharedSlot(int slot) {
+        if (pendingSlotCount > 0) {
+            synchronized (inventoryLock) {
+                decodePendingSlot(slot);
+            }
+        }
+        return sharedInventory.get(slot);
+    }
+
+    /**
+     * Decode every slot still in its on-disk form (before bulk reads of the canonical inventory)
+     */
+    private static void decodeAllPendingSlots() {
+        if (pendingSlotCount == 0) return;
+        
+        synchronized (inventoryLock) {
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                decodePendingSlot(i);
+            }
+        }
+        SoulLink.LOGGER.debug("Decoded lazily loaded shared inventory slots");
+    }
+
+    /**
+     * Decode a pending slot into an ItemStack. Callers must hold inventoryLock.
+     */
+    private static void decodePendingSlot(int slot) {
+        if (!pendingSlots[slot]) return;
+        
+        CompoundTag itemTag = pendingSlotTag(slot);
+        if (itemTag != null) {
+            sharedInventory.set(slot, ItemStack.of(itemTag));
+        }
+        pendingSlots[slot] = false;
+        pendingSlotPayloads[slot] = null;
+        pendingSlotCount--;
+    }
+
+    /**
+     * Raw tag of a pending slot, parsed from its snapshot payload if necessary.
+     * Returns null if the payload is corrupt. Callers must hold inventoryLock.
+     */
+    private static CompoundTag pendingSlotTag(int slot) {
+        if (encodedSlots[slot] == null || encodedSlotVersions[slot] != slotVersions[slot]) {
+            try {
+                encodedSlots[slot] = SharedInventorySnapshot.decodeSlot(pendingSlotPayloads[slot]);
+                encodedSlotVersions[slot] = slotVersions[slot];
+            } catch (IOException e) {
+                SoulLink.LOGGER.error("Shared inventory slot {} is corrupt, leaving it empty: {}", slot, e.getMessage());
+                return null;
+            }
+        }
+        return encodedSlots[slot];
+    }
+
+    /**
+     * Whether a canonical slot holds an item, without decoding it. Callers must hold inventoryLock.
+     */
+    private static boolean isSharedSlotEmpty(int slot) {
+        return !pendingSlots[slot] && sharedInventory.get(slot).isEmpty();
+    }
+
+    /**
+     * Mark a slot as loaded but not yet decoded. Callers must hold inventoryLock.
+     */
+    private static void markPending(int slot) {
+        if (!pendingSlots[slot]) {
+            pendingSlots[slot] = true;
+            pendingSlotCount++;
+        }
+    }
+
+    /**
+     * Store a stack in a canonical slot and bump the slot version if the contents changed.
+     * Callers must hold inventoryLock. The stack is copied before it is stored.
+     */
+    private static void putSharedSlot(int slot, ItemStack stack) {
+        if (pendingSlots[slot]) {
+            // Overwritten before it was ever read - no need to decode it
+            pendingSlots[slot] = false;
+            pendingSlotPayloads[slot] = null;
+            pendingSlotCount--;
+            previousSlots[slot] = null;
+        } else if (ItemStack.matches(sharedInventory.get(slot), stack)) {
+            return;
+        } else {
+            previousSlots[slot] = sharedInventory.get(slot);
+        }
+        sharedInventory.set(slot, stack.copy());
+        slotVersions[slot]++;
+        contentRevision++;
+    }
+
     /**
      * Check if shared inventory feature is enabled
      */
@@ -108,6 +280,7 @@ public class SharedInventoryManager {
      * Get the shared inventory
      */
     public static List<ItemStack> getSharedInventory() {
+        decodeAllPendingSlots();
         return new ArrayList<>(sharedInventory);
     }
 
@@ -117,7 +290,7 @@ public class SharedInventoryManager {
     public static void setSlot(int slot, ItemStack stack) {
         if (slot >= 0 && slot < INVENTORY_SIZE) {
             synchronized (inventoryLock) {
-                sharedInventory.set(slot, stack.copy());
+                putSharedSlot(slot, stack);
             }
         }
     }
@@ -127,7 +300,7 @@ public class SharedInventoryManager {
      */
     public static ItemStack getSlot(int slot) {
         if (slot >= 0 && slot < INVENTORY_SIZE) {
-            return sharedInventory.get(slot).copy();
+            return sharedSlot(slot).copy();
         }
         return ItemStack.EMPTY;
     }
@@ -139,10 +312,10 @@ public class SharedInventoryManager {
     public static void setContainerOpen(ServerPlayer player, boolean open) {
         if (open) {
             playersWithContainerOpen.put(player.getUUID(), true);
-            SoulLink.LOGGER.debug("Player {} opened a container - sync paused for them", player.getName().getString());
+            SoulLink.LOGGER.debug("Player {} opened a container - touched slots are leased", player.getName().getString());
         } else {
             playersWithContainerOpen.remove(player.getUUID());
-            SoulLink.LOGGER.debug("Player {} closed container - sync resumed", player.getName().getString());
+            SoulLink.LOGGER.debug("Player {} closed container - leases released", player.getName().getString());
         }
     }
 
@@ -172,6 +345,42 @@ public class SharedInventoryManager {
         return !player.containerMenu.getCarried().isEmpty();
     }
 
+    /**
+     * Slots currently leased by a player's open menu or cursor, or null if there are none.
+     * 
+     * While a container is open, every slot the player changed since their last sync is leased:
+     * neither their edit is merged nor the shared value applied until the session ends.
+     * While the cursor holds an item, every player inventory slot the open menu can reach is
+     * leased as well, since the item may land in any of them.
+     * Slots outside the lease keep syncing both ways.
+     */
+    private static BitSet leasedSlots(ServerPlayer player) {
+        boolean holdingCursor = isHoldingCursorItem(player);
+        if (!holdingCursor && !hasContainerOpen(player)) {
+            return null;
+        }
+        
+        BitSet leased = new BitSet(INVENTORY_SIZE);
+        Inventory inv = player.getInventory();
+        
+        if (holdingCursor) {
+            for (Slot slot : player.containerMenu.slots) {
+                if (slot.container == inv && slot.getContainerSlot() < INVENTORY_SIZE) {
+                    leased.set(slot.getContainerSlot());
+                }
+            }
+        }
+        
+        List<ItemStack> base = lastKnownInventory.get(player.getUUID());
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            if (base == null || !ItemStack.matches(inv.getItem(i), base.get(i))) {
+                leased.set(i);
+            }
+        }
+        
+        return leased.isEmpty() ? null : leased;
+    }
+
     /**
      * Copy a player's inventory to the shared inventory
      */
@@ -195,16 +404,16 @@ public class SharedInventoryManager {
             
             // Copy main inventory (slots 0-35)
             for (int i = 0; i < 36; i++) {
-                sharedInventory.set(i, inv.getItem(i).copy());
+                putSharedSlot(i, inv.getItem(i));
             }
             
             // Copy armor (slots 36-39)
             for (int i = 0; i < 4; i++) {
-                sharedInventory.set(ARMOR_START + i, inv.armor.get(i).copy());
+                putSharedSlot(ARMOR_START + i, inv.armor.get(i));
             }
             
             // Copy offhand (slot 40)
-            sharedInventory.set(OFFHAND_SLOT, inv.offhand.get(0).copy());
+            putSharedSlot(OFFHAND_SLOT, inv.offhand.get(0));
             
             // Increment global version to mark this as the newest state
             globalSyncVersion.incrementAndGet();
@@ -224,6 +433,15 @@ public class SharedInventoryManager {
      * Apply the shared inventory to a player
      */
     public static void applyToPlayer(ServerPlayer player) {
+        applyToPlayer(player, new HashMap<>());
+    }
+
+    /**
+     * Apply the shared inventory to a player.
+     * Only slots that differ from the canonical inventory are written and sent. Multicast callers
+     * share one packet cache, so recipients with the same changed slots get the same encoded packet.
+     */
+    private static void applyToPlayer(ServerPlayer player, Map<BitSet, SyncInventoryPacket> packets) {
         if (!isEnabled()) return;
         
         UUID playerId = player.getUUID();
@@ -233,18 +451,6 @@ public class SharedInventoryManager {
             return;
         }
         
-        // SAFETY: Don't apply if player has a container open - could corrupt their transaction
-        if (hasContainerOpen(player)) {
-            SoulLink.LOGGER.debug("Skipping apply to {} - container is open", player.getName().getString());
-            return;
-        }
-        
-        // SAFETY: Don't apply if player is dragging an item with cursor
-        if (isHoldingCursorItem(player)) {
-            SoulLink.LOGGER.debug("Skipping apply to {} - cursor item in transit", player.getName().getString());
-            return;
-        }
-        
         // Check if this player is already up to date (version check)
         long currentVersion = globalSyncVersion.get();
         Long playerVersion = playerSyncVersion.get(playerId);
@@ -253,36 +459,67 @@ public class SharedInventoryManager {
         }
         
         syncingPlayers.put(playerId, true);
+        decodeAllPendingSlots();
         
         try {
+            // SAFETY: Slots leased by an open container or cursor item are left alone mid-transaction
+            BitSet leased = leasedSlots(player);
+            BitSet changed = new BitSet(INVENTORY_SIZE);
+            BitSet deltaSlots = new BitSet(INVENTORY_SIZE);
+            SyncInventoryPacket packet = null;
+            
             synchronized (inventoryLock) {
                 Inventory inv = player.getInventory();
                 
-                // Apply main inventory (slots 0-35)
-                for (int i = 0; i < 36; i++) {
-                    inv.setItem(i, sharedInventory.get(i).copy());
+                // Shared slot indices match the player inventory's container slots (main, armor, offhand)
+                for (int i = 0; i < INVENTORY_SIZE; i++) {
+                    if (leased != null && leased.get(i)) {
+                        continue;
+                    }
+                    ItemStack canonical = sharedInventory.get(i);
+                    ItemStack current = inv.getItem(i);
+                    if (!ItemStack.matches(current, canonical)) {
+                        // Holding the previous stack - the nested delta turns it into the canonical one
+                        if (previousSlots[i] != null && ItemStack.matches(current, previousSlots[i]) && nestedDelta(i) != null) {
+                            deltaSlots.set(i);
+                        }
+                        inv.setItem(i, canonical.copy());
+                        changed.set(i);
+                    }
                 }
                 
-                // Apply armor (slots 36-39)
-                for (int i = 0; i < 4; i++) {
-                    inv.armor.set(i, sharedInventory.get(ARMOR_START + i).copy());
+                if (!changed.isEmpty()) {
+                    if (leased == null && changed.cardinality() * 2 >= INVENTORY_SIZE) {
+                        // Mostly stale (joins, long absences) - send the cached full snapshot instead
+                        packet = fullSnapshotPacket();
+                        changed.set(0, INVENTORY_SIZE);
+                    } else {
+                        // Key: bits 0-40 are the changed slots, bits 41-81 the ones sent as nested deltas
+                        BitSet key = (BitSet) changed.clone();
+                        deltaSlots.stream().forEach(slot -> key.set(INVENTORY_SIZE + slot));
+                        packet = packets.computeIfAbsent(key, SharedInventoryManager::createSyncPacket);
+                        nestedDeltasSent.addAndGet(deltaSlots.cardinality());
+                    }
                 }
-                
-                // Apply offhand (slot 40)
-                inv.offhand.set(0, sharedInventory.get(OFFHAND_SLOT).copy());
             }
             
-            // Update player's sync version
-            playerSyncVersion.put(playerId, globalSyncVersion.get());
-            
-            // Update last known inventory
-            updateLastKnownInventory(player);
+            // Update player's sync version - a player holding leases still owes those slots a sync
+            if (leased == null) {
+                playerSyncVersion.put(playerId, globalSyncVersion.get());
+            } else {
+                playerSyncVersion.remove(playerId);
+            }
             
-            // Send sync packet to client
-            SoulLinkNetwork.sendToPlayer(new SyncInventoryPacket(sharedInventory), player);
+            // Update last known inventory, keeping the old base for leased slots so their edits merge later
+            updateLastKnownInventory(player, leased);
             
-            // Mark inventory as changed
-            player.inventoryMenu.broadcastChanges();
+            if (packet != null) {
+                // Our packet is the only transmission: tell vanilla's menu sync the client already has these slots
+                markSlotsSynced(player, changed);
+                SoulLinkNetwork.sendToPlayer(packet, player);
+                inventoryPacketsSent.incrementAndGet();
+                inventorySlotsSent.addAndGet(packet.getSlotCount());
+            }
             
         } finally {
             syncingPlayers.put(playerId, false);
@@ -298,8 +535,31 @@ public class SharedInventoryManager {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return;
         
+        decodeAllPendingSlots();
+        Map<BitSet, SyncInventoryPacket> packets = new HashMap<>();
         for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            applyToPlayer(player);
+            applyToPlayer(player, packets);
+        }
+    }
+
+    /**
+     * Queue a sync of every online player on the deferred work queue, one task per player,
+     * so operator-triggered syncs of large groups are spread over ticks
+     */
+    public static void queueSyncAllPlayers() {
+        if (!isEnabled()) return;
+        
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+        
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            UUID playerId = player.getUUID();
+            SoulLinkWorkQueue.submit(SoulLinkWorkQueue.Priority.NORMAL, List.of("sync", playerId), () -> {
+                ServerPlayer target = server.getPlayerList().getPlayer(playerId);
+                if (target != null) {
+                    applyToPlayer(target);
+                }
+            });
         }
     }
 
@@ -312,57 +572,347 @@ public class SharedInventoryManager {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return;
         
+        decodeAllPendingSlots();
+        Map<BitSet, SyncInventoryPacket> packets = new HashMap<>();
         for (ServerPlayer player : server.getPlayerList().getPlayers()) {
             if (!player.getUUID().equals(source.getUUID())) {
-                applyToPlayer(player);
+                applyToPlayer(player, packets);
             }
         }
     }
 
     /**
-     * Called when a player's inventory changes.
-     * Updates the shared inventory and syncs to all other players.
+     * Build a sync packet for the given canonical slots. Callers must hold inventoryLock.
+     * Canonical stacks are never modified in place, so the packet can share them; their wire
+     * form is snapshotted here on the server thread and encoder threads only read that.
+     * Bits from INVENTORY_SIZE up mark slots to send as their nested delta.
      */
-    public static void onPlayerInventoryChanged(ServerPlayer player) {
+    private static SyncInventoryPacket createSyncPacket(BitSet key) {
+        int[] slots = key.get(0, INVENTORY_SIZE).stream().toArray();
+        List<ItemStack> stacks = new ArrayList<>(slots.length);
+        NestedItemDelta[] deltas = null;
+        for (int i = 0; i < slots.length; i++) {
+            stacks.add(sharedInventory.get(slots[i]));
+            if (key.get(INVENTORY_SIZE + slots[i])) {
+                if (deltas == null) {
+                    deltas = new NestedItemDelta[slots.length];
+                }
+                deltas[i] = nestedDelta(slots[i]);
+            }
+        }
+        return new SyncInventoryPacket(slots, stacks, deltas).prepareEncoding();
+    }
+
+    /**
+     * Hash of a canonical slot as the client should see it, computed once per slot version.
+     * Callers must hold inventoryLock.
+     */
+    private static int slotHash(int slot) {
+        if (slotHashVersions[slot] != slotVersions[slot]) {
+            ItemStack stack = sharedInventory.get(slot);
+            slotHashes[slot] = InventoryHashPacket.slotHash(stack, stack.getShareTag());
+            slotHashVersions[slot] = slotVersions[slot];
+        }
+        return slotHashes[slot];
+    }
+
+    /**
+     * Anti-entropy: a client reported the hashes of its slots. Resend only the slots that differ
+     * from the canonical inventory although the server believes the client already has them.
+     */
+    public static void onClientInventoryHashes(ServerPlayer player, int[] clientHashes) {
         if (!isEnabled()) return;
+        if (clientHashes.length != INVENTORY_SIZE) return;
         
         UUID playerId = player.getUUID();
-        
-        // Don't process if we're currently syncing this player (loop prevention)
         if (syncingPlayers.getOrDefault(playerId, false)) {
             return;
         }
+        hashReports.incrementAndGet();
         
-        // SAFETY: Don't process if player has a container open
-        if (hasContainerOpen(player)) {
+        // Behind on versions - the regular apply will send everything that is missing
+        Long playerVersion = playerSyncVersion.get(playerId);
+        if (playerVersion == null || playerVersion < globalSyncVersion.get()) {
             return;
         }
         
-        // SAFETY: Don't process if player is dragging cursor item
-        if (isHoldingCursorItem(player)) {
-            return;
+        decodeAllPendingSlots();
+        BitSet leased = leasedSlots(player);
+        BitSet differing = new BitSet(INVENTORY_SIZE);
+        SyncInventoryPacket packet = null;
+        
+        synchronized (inventoryLock) {
+            Inventory inv = player.getInventory();
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                if (leased != null && leased.get(i)) {
+                    continue;
+                }
+                // Only slots the server already applied - unmerged player edits are not desyncs
+                if (ItemStack.matches(inv.getItem(i), sharedInventory.get(i)) && slotHash(i) != clientHashes[i]) {
+                    differing.set(i);
+                }
+            }
+            if (!differing.isEmpty()) {
+                packet = createSyncPacket(differing);
+            }
+        }
+        
+        if (packet != null) {
+            SoulLink.LOGGER.debug("Repairing {} desynced slot(s) for {}", differing.cardinality(), player.getName().getString());
+            markSlotsSynced(player, differing);
+            SoulLinkNetwork.sendToPlayer(packet, player);
+            inventoryPacketsSent.incrementAndGet();
+            inventorySlotsSent.addAndGet(packet.getSlotCount());
+            slotsRepaired.addAndGet(differing.cardinality());
+        }
+    }
+
+    /**
+     * Nested-item delta from a slot's previous stack to its current one, computed once per slot version.
+     * Callers must hold inventoryLock.
+     */
+    private static NestedItemDelta nestedDelta(int slot) {
+        if (nestedDeltaVersions[slot] != slotVersions[slot]) {
+            ItemStack previous = previousSlots[slot];
+            nestedDeltas[slot] = previous == null ? null : NestedItemDelta.between(previous, sharedInventory.get(slot));
+            nestedDeltaVersions[slot] = slotVersions[slot];
+        }
+        return nestedDeltas[slot];
+    }
+
+    /**
+     * The full snapshot packet for the current contents, rebuilt only after they change.
+     * Callers must hold inventoryLock.
+     */
+    private static SyncInventoryPacket fullSnapshotPacket() {
+        if (fullSnapshotPacket == null || fullSnapshotRevision != contentRevision) {
+            BitSet all = new BitSet(INVENTORY_SIZE);
+            all.set(0, INVENTORY_SIZE);
+            fullSnapshotPacket = createSyncPacket(all);
+            fullSnapshotRevision = contentRevision;
+            fullSnapshotBuilds.incrementAndGet();
+        } else {
+            fullSnapshotReuses.incrementAndGet();
+        }
+        return fullSnapshotPacket;
+    }
+
+    /**
+     * Build (and start encoding) the full snapshot sync ahead of a respawn wave, so every
+     * respawning player is sent the same prepared packet
+     */
+    public static void prepareRespawnSnapshot() {
+        if (!isEnabled() || !SoulLinkConfig.KEEP_INVENTORY_ON_DEATH.get()) return;
+        
+        decodeAllPendingSlots();
+        synchronized (inventoryLock) {
+            fullSnapshotPacket();
+        }
+    }
+
+    /**
+     * Apply the shared inventory to a group of players, sharing packets between them
+     */
+    public static void applyToPlayers(List<ServerPlayer> players) {
+        if (!isEnabled()) return;
+        
+        decodeAllPendingSlots();
+        Map<BitSet, SyncInventoryPacket> packets = new HashMap<>();
+        for (ServerPlayer player : players) {
+            applyToPlayer(player, packets);
+        }
+    }
+
+    /**
+     * Record slots we just sent in the remote-slot cache of the player's open menus,
+     * so vanilla's broadcastChanges does not send the same change a second time.
+     */
+    private static void markSlotsSynced(ServerPlayer player, BitSet changed) {
+        markSlotsSynced(player.inventoryMenu, player.getInventory(), changed);
+        if (player.containerMenu != player.inventoryMenu) {
+            markSlotsSynced(player.containerMenu, player.getInventory(), changed);
+        }
+    }
+
+    private static void markSlotsSynced(AbstractContainerMenu menu, Inventory inv, BitSet changed) {
+        for (Slot slot : menu.slots) {
+            if (slot.container == inv && changed.get(slot.getContainerSlot())) {
+                menu.setRemoteSlot(slot.index, inv.getItem(slot.getContainerSlot()));
+            }
+        }
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("version %d, %d sync packet(s) carrying %d slot(s) (%d as nested deltas), %d merge conflict(s), "
+                        + "full snapshot built %d / reused %d, %d hash report(s), %d slot(s) repaired",
+                globalSyncVersion.get(), inventoryPacketsSent.get(), inventorySlotsSent.get(), nestedDeltasSent.get(),
+                mergeConflicts.get(), fullSnapshotBuilds.get(), fullSnapshotReuses.get(),
+                hashReports.get(), slotsRepaired.get());
+    }
+
+    /**
+     * Called when a player's inventory changes.
+     * Updates the shared inventory and syncs to all other players.
+     * 
+     * @return true if the player's inventory had changed (or was just synced), i.e. the player is active
+     */
+    public static boolean onPlayerInventoryChanged(ServerPlayer player) {
+        if (!isEnabled()) return false;
+        
+        UUID playerId = player.getUUID();
+        
+        // Don't process if we're currently syncing this player (loop prevention)
+        if (syncingPlayers.getOrDefault(playerId, false)) {
+            return false;
         }
         
         // DEBOUNCE: Prevent rapid sync spam that causes race conditions
         long now = System.currentTimeMillis();
         Long lastSync = lastSyncTime.get(playerId);
-        if (lastSync != null && (now - lastSync) < SYNC_DEBOUNCE_MS) {
-            return; // Too soon since last sync from this player
+        if (lastSync != null && (now - lastSync) < SoulLinkGovernor.intervalMs(SYNC_DEBOUNCE_MS)) {
+            return true; // Too soon since last sync from this player
         }
         
         // Check if inventory actually changed
         if (!hasInventoryChanged(player)) {
-            return;
+            // Leases released without edits - catch up on slots that were held back
+            if (!playerSyncVersion.containsKey(playerId)) {
+                applyToPlayer(player);
+            }
+            return false;
         }
         
         // Update debounce timestamp
         lastSyncTime.put(playerId, now);
         
-        // Copy player's inventory to shared
-        copyFromPlayer(player);
+        // Merge the player's edits into the shared inventory and push the result to everyone
+        mergeFromPlayer(player);
+        return true;
+    }
+
+    /**
+     * Three-way merge of a player's inventory into the canonical inventory, slot by slot.
+     * 
+     * base = what the player last received or sent (last known inventory),
+     * current = the player's inventory now, canonical = the shared inventory.
+     * Slots the player did not touch are left alone, so edits from different players to
+     * different slots never clobber each other. Only slots both sides changed differently
+     * are conflicts, resolved by the configured policy.
+     */
+    private static void mergeFromPlayer(ServerPlayer player) {
+        if (mergeWithoutBroadcast(player)) {
+            syncAllPlayers();
+        }
+    }
+
+    /**
+     * Merge a player's inventory into the canonical inventory without syncing anyone.
+     * 
+     * @return true if the canonical inventory or the player needs a sync afterwards
+     */
+    private static boolean mergeWithoutBroadcast(ServerPlayer player) {
+        List<ItemStack> base = lastKnownInventory.get(player.getUUID());
+        if (base == null) {
+            // No record of the player's last applied sync (not applied since joining, or the record
+            // was dropped), so none of their slots can be told apart as an edit. Copying them over
+            // the shared inventory would clobber every other player's edits; instead seed the base
+            // with what they hold and apply the shared inventory, as their join sync would.
+            if (isSharedInventoryEmpty()) {
+                copyFromPlayer(player); // First contributor, same as on join
+                return true;
+            }
+            updateLastKnownInventory(player);
+            playerSyncVersion.remove(player.getUUID());
+            return true;
+        }
+        
+        decodeAllPendingSlots();
+        boolean playerWins = SoulLinkConfig.INVENTORY_CONFLICT_POLICY.get() == SoulLinkConfig.ConflictPolicy.PLAYER;
+        int merged = 0;
+        int conflicts = 0;
+        
+        // Leased slots are still mid-transaction - their edits merge once the lease is released
+        BitSet leased = leasedSlots(player);
+        
+        synchronized (inventoryLock) {
+            Inventory inv = player.getInventory();
+            
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                if (leased != null && leased.get(i)) {
+                    continue;
+                }
+                ItemStack current = inv.getItem(i);
+                ItemStack baseStack = base.get(i);
+                if (ItemStack.matches(current, baseStack)) {
+                    continue; // Player did not touch this slot
+                }
+                
+                ItemStack canonical = sharedInventory.get(i);
+                if (ItemStack.matches(canonical, current)) {
+                    continue; // Same edit already in the shared inventory
+                }
+                
+                if (ItemStack.matches(canonical, baseStack)) {
+                    putSharedSlot(i, current);
+                    merged++;
+                } else {
+                    conflicts++;
+                    if (playerWins) {
+                        putSharedSlot(i, current);
+                        merged++;
+                    }
+                }
+            }
+            
+            if (merged > 0) {
+                globalSyncVersion.incrementAndGet();
+            }
+        }
+        
+        if (conflicts > 0) {
+            mergeConflicts.addAndGet(conflicts);
+            SoulLink.LOGGER.debug("Merged inventory of {}: {} slot(s), {} conflict(s) resolved as {}",
+                    player.getName().getString(), merged, conflicts, SoulLinkConfig.INVENTORY_CONFLICT_POLICY.get());
+        }
+        
+        if (merged == 0 && conflicts == 0) {
+            // Nothing new for anyone - just record what the player has outside their leases
+            updateLastKnownInventory(player, leased);
+            return false;
+        }
         
-        // Sync to all other players
-        syncAllPlayersExcept(player);
+        // The source may still lack other players' edits or lost a conflict - re-apply it too.
+        // applyToPlayer only sends slots that actually differ.
+        playerSyncVersion.remove(player.getUUID());
+        return true;
+    }
+
+    /**
+     * Called once per tick with every player who picked up items during that tick.
+     * All pickups are merged first and then sent as a single delta broadcast, instead of
+     * one scheduled task, full diff and broadcast per item entity.
+     */
+    public static void onPlayersPickedUp(List<ServerPlayer> players) {
+        if (!isEnabled()) return;
+        
+        boolean broadcast = false;
+        for (ServerPlayer player : players) {
+            if (syncingPlayers.getOrDefault(player.getUUID(), false)) {
+                continue;
+            }
+            if (mergeWithoutBroadcast(player)) {
+                broadcast = true;
+            }
+            // Pickups already merged this tick - the periodic check has nothing left to debounce against
+            lastSyncTime.put(player.getUUID(), System.currentTimeMillis());
+        }
+        
+        if (broadcast) {
+            syncAllPlayers();
+        }
     }
 
     /**
@@ -404,23 +954,27 @@ public class SharedInventoryManager {
      * Update the last known inventory state for a player
      */
     private static void updateLastKnownInventory(ServerPlayer player) {
+        updateLastKnownInventory(player, null);
+    }
+
+    /**
+     * Update the last known inventory state for a player, keeping the previous entries for the given slots
+     */
+    private static void updateLastKnownInventory(ServerPlayer player, BitSet keep) {
         UUID playerId = player.getUUID();
+        List<ItemStack> previous = lastKnownInventory.get(playerId);
         List<ItemStack> snapshot = new ArrayList<>(INVENTORY_SIZE);
         Inventory inv = player.getInventory();
         
-        // Main inventory
-        for (int i = 0; i < 36; i++) {
-            snapshot.add(inv.getItem(i).copy());
-        }
-        
-        // Armor
-        for (int i = 0; i < 4; i++) {
-            snapshot.add(inv.armor.get(i).copy());
+        // Main inventory, armor and offhand share the container slot layout
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            if (keep != null && keep.get(i) && previous != null) {
+                snapshot.add(previous.get(i));
+            } else {
+                snapshot.add(inv.getItem(i).copy());
+            }
         }
         
-        // Offhand
-        snapshot.add(inv.offhand.get(0).copy());
-        
         lastKnownInventory.put(playerId, snapshot);
     }
 
@@ -430,11 +984,9 @@ public class SharedInventoryManager {
     public static void onPlayerJoin(ServerPlayer player) {
         if (!isEnabled()) return;
         
-        MinecraftServer server = player.server;
-        List<ServerPlayer> players = server.getPlayerList().getPlayers();
-        
-        // If this is the first player, use their inventory as the shared one
-        if (players.size() == 1 || isSharedInventoryEmpty()) {
+        // If nobody has contributed yet, use this player's inventory as the shared one.
+        // A shared inventory loaded from the world at server start is kept, even for the first joiner.
+        if (isSharedInventoryEmpty()) {
             copyFromPlayer(player);
             SoulLink.LOGGER.info("Player {} is first - using their inventory as shared", player.getName().getString());
         } else {
@@ -460,37 +1012,175 @@ public class SharedInventoryManager {
      * Check if the shared inventory is empty (all slots empty)
      */
     private static boolean isSharedInventoryEmpty() {
-        for (ItemStack stack : sharedInventory) {
-            if (!stack.isEmpty()) {
-                return false;
+        synchronized (inventoryLock) {
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                if (!isSharedSlotEmpty(i)) {
+                    return false;
+                }
             }
         }
         return true;
     }
 
     /**
-     * Save the shared inventory to NBT
+     * Save the shared inventory to NBT.
+     * Empty slots are skipped and unchanged slots reuse the tag encoded by a previous save.
      */
-    public static CompoundTag saveToNBT() {
-        CompoundTag tag = new CompoundTag();
+    public static CompoundTag saveToNBT(CompoundTag tag) {
         ListTag itemList = new ListTag();
+        int reencoded = 0;
         
         synchronized (inventoryLock) {
             for (int i = 0; i < INVENTORY_SIZE; i++) {
-                CompoundTag itemTag = new CompoundTag();
-                itemTag.putInt("Slot", i);
-                sharedInventory.get(i).save(itemTag);
-                itemList.add(itemTag);
+                if (isSharedSlotEmpty(i)) {
+                    continue;
+                }
+                
+                if (encodedSlots[i] == null || encodedSlotVersions[i] != slotVersions[i]) {
+                    reencoded++;
+                }
+                CompoundTag itemTag = encodedSlotTag(i);
+                if (itemTag != null) {
+                    itemList.add(itemTag);
+                }
             }
         }
         
+        tag.putInt("FormatVersion", SAVE_FORMAT_VERSION);
         tag.put("SharedInventory", itemList);
         tag.putBoolean("Initialized", initialized);
         tag.putLong("SyncVersion", globalSyncVersion.get());
+        // Carried forward so older .slinv files never outrank a later snapshot
+        tag.putLong("SnapshotSequence", snapshotSequence.get());
         
+        SoulLink.LOGGER.debug("Saved shared inventory: {} slot(s) written, {} re-encoded", itemList.size(), reencoded);
         return tag;
     }
 
+    /**
+     * Get the cached NBT for a non-empty slot, re-encoding it only if the slot changed.
+     * Pending slots are saved from their raw form without being decoded.
+     * Callers must hold inventoryLock.
+     */
+    private static CompoundTag encodedSlotTag(int slot) {
+        if (pendingSlots[slot]) {
+            return pendingSlotTag(slot);
+        }
+        if (encodedSlots[slot] == null || encodedSlotVersions[slot] != slotVersions[slot]) {
+            CompoundTag itemTag = new CompoundTag();
+            itemTag.putInt("Slot", slot);
+            sharedInventory.get(slot).save(itemTag);
+            encodedSlots[slot] = itemTag;
+            encodedSlotVersions[slot] = slotVersions[slot];
+        }
+        return encodedSlots[slot];
+    }
+
+    /**
+     * Save the shared inventory as a binary snapshot, written off-thread.
+     * The NBT points at the snapshot and also keeps the slot tags (reused from earlier saves),
+     * so a snapshot whose write failed or was lost is never the only copy.
+     */
+    public static CompoundTag saveToSnapshot(CompoundTag tag, Path directory, String baseName) {
+        byte[][] payloads = new byte[INVENTORY_SIZE][];
+        ListTag itemList = new ListTag();
+        long sequence;
+        long syncVersion;
+        
+        synchronized (inventoryLock) {
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                if (isSharedSlotEmpty(i)) {
+                    continue;
+                }
+                CompoundTag slotTag = encodedSlotTag(i);
+                if (slotTag != null) {
+                    itemList.add(slotTag);
+                }
+                if (pendingSlotPayloads[i] != null && pendingSlotPayloads[i].isDirect()) {
+                    // Copied off the file mapping before the snapshot file it points into can be replaced
+                    byte[] bytes = new byte[pendingSlotPayloads[i].remaining()];
+                    pendingSlotPayloads[i].duplicate().get(bytes);
+                    pendingSlotPayloads[i] = ByteBuffer.wrap(bytes);
+                }
+                if (encodedSlotPayloads[i] == null || encodedPayloadVersions[i] != slotVersions[i]) {
+                    if (pendingSlotPayloads[i] != null) {
+                        // Still undecoded - stored exactly as it was read
+                        encodedSlotPayloads[i] = pendingSlotPayloads[i].array();
+                    } else {
+                        if (slotTag == null) {
+                            continue;
+                        }
+                        encodedSlotPayloads[i] = SharedInventorySnapshot.encodeSlot(slotTag);
+                    }
+                    encodedPayloadVersions[i] = slotVersions[i];
+                }
+                payloads[i] = encodedSlotPayloads[i];
+            }
+            sequence = snapshotSequence.incrementAndGet();
+            syncVersion = globalSyncVersion.get();
+        }
+        
+        tag.putInt("FormatVersion", SAVE_FORMAT_VERSION);
+        tag.put("SharedInventory", itemList);
+        tag.putString("SnapshotFile", baseName);
+        tag.putLong("SnapshotSequence", sequence);
+        tag.putBoolean("Initialized", initialized);
+        tag.putLong("SyncVersion", syncVersion);
+        
+        SoulLinkExecutor.submit("shared inventory snapshot", () -> {
+            try {
+                SharedInventorySnapshot.write(directory, baseName, sequence, syncVersion, payloads);
+            } catch (IOException e) {
+                SoulLink.LOGGER.error("Failed to write shared inventory snapshot: {}", e.getMessage());
+            }
+        });
+        return tag;
+    }
+
+    /**
+     * Load the shared inventory from a binary snapshot.
+     * Returns false if no usable snapshot exists or the newest one is older than the world data,
+     * so the caller can fall back to NBT.
+     */
+    public static boolean loadFromSnapshot(CompoundTag tag, Path directory) {
+        SharedInventorySnapshot.Loaded snapshot = SharedInventorySnapshot.read(directory, tag.getString("SnapshotFile"));
+        if (snapshot == null) {
+            return false;
+        }
+        
+        if (snapshot.sequence < tag.getLong("SnapshotSequence")) {
+            // The write of the newer snapshot failed or was lost - loading this one would roll items back
+            if (tag.contains("SharedInventory")) {
+                SoulLink.LOGGER.warn("Shared inventory snapshot is older than the world data (sequence {} < {}), using the world data",
+                        snapshot.sequence, tag.getLong("SnapshotSequence"));
+            } else {
+                SoulLink.LOGGER.error("Shared inventory snapshot is older than the world data (sequence {} < {}) and the world data "
+                        + "has no copy of the items; refusing to load stale items", snapshot.sequence, tag.getLong("SnapshotSequence"));
+            }
+            return false;
+        }
+        
+        synchronized (inventoryLock) {
+            initializeEmptyInventory();
+            
+            // Slots stay as views into the file mapping until first access
+            for (int slot = 0; slot < INVENTORY_SIZE && slot < snapshot.slots.length; slot++) {
+                if (snapshot.slots[slot] != null) {
+                    slotVersions[slot]++;
+                    contentRevision++;
+                    pendingSlotPayloads[slot] = snapshot.slots[slot];
+                    markPending(slot);
+                }
+            }
+        }
+        
+        snapshotSequence.set(snapshot.sequence);
+        initialized = tag.getBoolean("Initialized");
+        globalSyncVersion.set(snapshot.syncVersion);
+        SoulLink.LOGGER.info("Loaded shared inventory from snapshot (version {})", globalSyncVersion.get());
+        return true;
+    }
+
     /**
      * Load the shared inventory from NBT
      */
@@ -500,6 +1190,12 @@ public class SharedInventoryManager {
             return;
         }
         
+        // Format 1 saves list every slot, format 2 only non-empty ones - both carry a Slot index
+        int formatVersion = tag.contains("FormatVersion") ? tag.getInt("FormatVersion") : 1;
+        if (formatVersion > SAVE_FORMAT_VERSION) {
+            SoulLink.LOGGER.warn("Shared inventory was saved by a newer Soul-Link (format {}), loading what we can", formatVersion);
+        }
+        
         ListTag itemList = tag.getList("SharedInventory", 10); // 10 = CompoundTag
         
         synchronized (inventoryLock) {
@@ -508,25 +1204,40 @@ public class SharedInventoryManager {
             for (int i = 0; i < itemList.size(); i++) {
                 CompoundTag itemTag = itemList.getCompound(i);
                 int slot = itemTag.getInt("Slot");
-                if (slot >= 0 && slot < INVENTORY_SIZE) {
-                    sharedInventory.set(slot, ItemStack.of(itemTag));
+                if (slot >= 0 && slot < INVENTORY_SIZE && !isEmptyItemTag(itemTag)) {
+                    // Kept as raw NBT until first access. The loaded tag is also exactly
+                    // what the next save would write for this slot.
+                    slotVersions[slot]++;
+                    contentRevision++;
+                    encodedSlots[slot] = itemTag;
+                    encodedSlotVersions[slot] = slotVersions[slot];
+                    markPending(slot);
                 }
             }
         }
         
         initialized = tag.getBoolean("Initialized");
+        snapshotSequence.set(tag.getLong("SnapshotSequence"));
         if (tag.contains("SyncVersion")) {
             globalSyncVersion.set(tag.getLong("SyncVersion"));
         }
         SoulLink.LOGGER.info("Loaded shared inventory from world data (version {})", globalSyncVersion.get());
     }
 
+    /**
+     * Legacy saves list empty slots as air entries - recognise them without decoding
+     */
+    private static boolean isEmptyItemTag(CompoundTag itemTag) {
+        return !itemTag.contains("id") || "minecraft:air".equals(itemTag.getString("id")) || itemTag.getByte("Count") <= 0;
+    }
+
     /**
      * Reset the shared inventory (for new worlds or manual reset)
      */
     public static void reset() {
         synchronized (inventoryLock) {
             initializeEmptyInventory();
+            fullSnapshotPacket = null;
         }
         lastKnownInventory.clear();
         syncingPlayers.clear();
@@ -539,13 +1250,14 @@ public class SharedInventoryManager {
 
     @SubscribeEvent
     public static void onServerStarted(ServerStartedEvent event) {
-        // Load will happen via world data
+        // Load the world data now rather than on the first periodic save
+        SharedInventoryEventHandler.loadSharedInventory(event.getServer().overworld());
         SoulLink.LOGGER.info("SharedInventoryManager ready");
     }
 
     @SubscribeEvent
-    public static void onServerStopping(ServerStoppingEvent event) {
-        // Save happens via world data
+    public static void onServerStopped(ServerStoppedEvent event) {
+        // Reset only after the final world save has written the shared inventory
         reset();
     }
 }
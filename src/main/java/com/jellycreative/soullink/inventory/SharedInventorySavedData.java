@@ -1,21 +1,28 @@
 package com.jellycreative.soullink.inventory;
 
 import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelResource;
 
 import javax.annotation.Nonnull;
+import java.nio.file.Path;
 
 /**
  * Handles persistent storage of the shared inventory across world saves.
- * The shared inventory is saved with the overworld data.
+ * The shared inventory is saved with the overworld data, or - when binary snapshots
+ * are enabled - in a .slinv file next to it, with only a pointer kept in the NBT.
  */
 public class SharedInventorySavedData extends SavedData {
     
     private static final String DATA_NAME = SoulLink.MOD_ID + "_shared_inventory";
     
+    // World data directory of the current server, where binary snapshots live
+    private static Path snapshotDirectory;
+    
     public SharedInventorySavedData() {
         super();
     }
@@ -25,6 +32,15 @@ public class SharedInventorySavedData extends SavedData {
      */
     public static SharedInventorySavedData load(CompoundTag tag) {
         SharedInventorySavedData data = new SharedInventorySavedData();
+        
+        // Saves made with binary snapshots point at the .slinv file; fall back to NBT if it is unusable
+        if (tag.contains("SnapshotFile") && snapshotDirectory != null) {
+            if (SharedInventoryManager.loadFromSnapshot(tag, snapshotDirectory)) {
+                return data;
+            }
+            SoulLink.LOGGER.warn("No usable shared inventory snapshot found, falling back to NBT data");
+        }
+        
         SharedInventoryManager.loadFromNBT(tag);
         return data;
     }
@@ -32,15 +48,19 @@ public class SharedInventorySavedData extends SavedData {
     @Override
     @Nonnull
     public CompoundTag save(@Nonnull CompoundTag tag) {
-        CompoundTag inventoryData = SharedInventoryManager.saveToNBT();
-        tag.merge(inventoryData);
-        return tag;
+        if (SoulLinkConfig.USE_BINARY_SNAPSHOT.get() && snapshotDirectory != null) {
+            return SharedInventoryManager.saveToSnapshot(tag, snapshotDirectory, DATA_NAME);
+        }
+        
+        // Written straight into the tag - merge() would deep-copy the cached slot tags
+        return SharedInventoryManager.saveToNBT(tag);
     }
     
     /**
      * Get or create the saved data for a server level
      */
     public static SharedInventorySavedData get(ServerLevel level) {
+        snapshotDirectory = level.getServer().getWorldPath(LevelResource.ROOT).resolve("data");
         DimensionDataStorage storage = level.getDataStorage();
         return storage.computeIfAbsent(
                 SharedInventorySavedData::load,
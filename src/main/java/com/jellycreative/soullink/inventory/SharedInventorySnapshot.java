@@ -0,0 +1,293 @@
+package com.jellycreative.soullink.inventory;
+
+import com.jellycreative.soullink.SoulLink;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the shared inventory (.slinv files).
+ *
+ * Layout (big-endian):
+ * - Header: magic "SLNV", format (short), slot count (short), sequence (long), sync version (long), CRC32 (int)
+ * - Index: one (offset int, length int) entry per slot - length 0 means the slot is empty
+ * - Payloads: uncompressed NBT for every non-empty slot
+ *
+ * Files are read through a memory mapping and written with a single gathered write to a temporary
+ * file, which is then atomically moved over the target - a file that may still be mapped is never
+ * rewritten in place. Two files are written alternately so a failed write never destroys the
+ * previous snapshot; on load the valid file with the highest sequence wins, and only that file is mapped.
+ */
+public class SharedInventorySnapshot {
+
+    private static final String EXTENSION = ".slinv";
+    private static final int MAGIC = 0x534C4E56; // "SLNV"
+    private static final short FORMAT = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int INDEX_ENTRY_SIZE = 8;
+    private static final int CRC_OFFSET = 24;
+
+    // Serializes writers so an older snapshot can never overwrite a newer one (per world directory)
+    private static final Object writeLock = new Object();
+    private static final Map<Path, Long> lastWrittenSequence = new HashMap<>();
+
+    /**
+     * A snapshot read from disk. Slot buffers point into the file mapping.
+     */
+    public static class Loaded {
+        public final long sequence;
+        public final long syncVersion;
+        public final ByteBuffer[] slots;
+
+        private Loaded(long sequence, long syncVersion, ByteBuffer[] slots) {
+            this.sequence = sequence;
+            this.syncVersion = syncVersion;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Encode a slot tag into the payload form stored in the snapshot
+     */
+    public static byte[] encodeSlot(CompoundTag tag) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            NbtIo.write(tag, new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode shared inventory slot", e);
+        }
+    }
+
+    /**
+     * Decode a slot payload back into its tag
+     */
+    public static CompoundTag decodeSlot(ByteBuffer payload) throws IOException {
+        return NbtIo.read(new DataInputStream(new ByteBufferInputStream(payload.duplicate())));
+    }
+
+    /**
+     * Write a snapshot. Intended to run off the server thread.
+     * Slot views from an earlier read must no longer be in use (see the manager's snapshot save).
+     *
+     * @param payloads one entry per slot, null or empty for empty slots
+     */
+    public static void write(Path directory, String baseName, long sequence, long syncVersion, byte[][] payloads) throws IOException {
+        synchronized (writeLock) {
+            if (sequence <= lastWrittenSequence.getOrDefault(directory, -1L)) {
+                return; // A newer snapshot is already on disk
+            }
+
+            int slotCount = payloads.length;
+            int indexSize = slotCount * INDEX_ENTRY_SIZE;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + indexSize);
+            header.putInt(MAGIC);
+            header.putShort(FORMAT);
+            header.putShort((short) slotCount);
+            header.putLong(sequence);
+            header.putLong(syncVersion);
+            header.putInt(0); // CRC, filled in below
+
+            int offset = HEADER_SIZE + indexSize;
+            int buffers = 1;
+            for (byte[] payload : payloads) {
+                int length = payload == null ? 0 : payload.length;
+                header.putInt(length == 0 ? 0 : offset);
+                header.putInt(length);
+                offset += length;
+                if (length > 0) {
+                    buffers++;
+                }
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), HEADER_SIZE, indexSize);
+            ByteBuffer[] gathered = new ByteBuffer[buffers];
+            int next = 1;
+            for (byte[] payload : payloads) {
+                if (payload != null && payload.length > 0) {
+                    crc.update(payload);
+                    gathered[next++] = ByteBuffer.wrap(payload);
+                }
+            }
+            header.putInt(CRC_OFFSET, (int) crc.getValue());
+            header.flip();
+            gathered[0] = header;
+
+            Files.createDirectories(directory);
+            Path target = fileFor(directory, baseName, sequence);
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long remaining = offset;
+                while (remaining > 0) {
+                    remaining -= channel.write(gathered);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            lastWrittenSequence.put(directory, sequence);
+        }
+    }
+
+    /**
+     * Read the newest valid snapshot, or null if there is none
+     */
+    public static Loaded read(Path directory, String baseName) {
+        // Newest header first, so only the file actually loaded gets mapped
+        List<Path> files = new ArrayList<>(2);
+        Map<Path, Long> sequences = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            Path file = fileFor(directory, baseName, i);
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            try {
+                sequences.put(file, readSequence(file));
+                files.add(file);
+            } catch (IOException | RuntimeException e) {
+                SoulLink.LOGGER.warn("Ignoring unreadable shared inventory snapshot {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+        files.sort(Comparator.comparing(sequences::get, Comparator.reverseOrder()));
+
+        Loaded best = null;
+        for (Path file : files) {
+            try {
+                best = readFile(file);
+                break;
+            } catch (IOException | RuntimeException e) {
+                SoulLink.LOGGER.warn("Ignoring unreadable shared inventory snapshot {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+
+        if (best != null) {
+            synchronized (writeLock) {
+                lastWrittenSequence.merge(directory, best.sequence, Math::max);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sequence from a snapshot's header, read without mapping the file
+     */
+    private static long readSequence(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+        }
+        if (header.hasRemaining()) {
+            throw new IOException("truncated header");
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("bad magic");
+        }
+        return header.getLong(8);
+    }
+
+    private static Loaded readFile(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("bad size " + size);
+            }
+            // The mapping stays valid after the channel is closed, until the last slot view is dropped.
+            // The manager copies remaining views to the heap on its next snapshot save.
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("bad magic");
+        }
+        if (mapped.getShort(4) != FORMAT) {
+            throw new IOException("unsupported format " + mapped.getShort(4));
+        }
+        int slotCount = mapped.getShort(6);
+        long sequence = mapped.getLong(8);
+        long syncVersion = mapped.getLong(16);
+        int expectedCrc = mapped.getInt(CRC_OFFSET);
+
+        int size = mapped.capacity();
+        int indexEnd = HEADER_SIZE + slotCount * INDEX_ENTRY_SIZE;
+        if (slotCount < 0 || indexEnd > size) {
+            throw new IOException("truncated index");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(mapped.slice(HEADER_SIZE, size - HEADER_SIZE));
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("checksum mismatch");
+        }
+
+        ByteBuffer[] slots = new ByteBuffer[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            int entry = HEADER_SIZE + i * INDEX_ENTRY_SIZE;
+            int offset = mapped.getInt(entry);
+            int length = mapped.getInt(entry + 4);
+            if (length == 0) {
+                continue;
+            }
+            if (offset < indexEnd || length < 0 || (long) offset + length > size) {
+                throw new IOException("slot " + i + " out of bounds");
+            }
+            slots[i] = mapped.slice(offset, length);
+        }
+
+        return new Loaded(sequence, syncVersion, slots);
+    }
+
+    private static Path fileFor(Path directory, String baseName, long sequence) {
+        return directory.resolve(baseName + ((sequence & 1) == 0 ? ".a" : ".b") + EXTENSION);
+    }
+
+    /**
+     * Streams a ByteBuffer without copying it to the heap first
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.jellycreative.soullink.link;
+
+import com.jellycreative.soullink.SoulLink;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Directed, weighted links between players.
+ *
+ * An edge from a source to a target makes the target receive the source's linked effects,
+ * scaled per stat by the edge's multipliers (and by the global multipliers from the config).
+ * Edges are one-way: "A takes 50% of B's damage" is the edge B -> A with a damage multiplier of 0.5.
+ *
+ * While the graph is empty every player is linked to every other player, as before.
+ * The graph is persisted with the overworld data and compiled into one {@link LinkPlan}
+ * per online member whenever the graph or the roster changes, so propagation never looks
+ * at the graph itself. All state is touched on the server thread only.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class LinkGraph {
+
+    // source -> target -> multipliers (indexed by LinkStat), in insertion order for listing
+    private static final Map<UUID, Map<UUID, float[]>> edges = new LinkedHashMap<>();
+
+    // Last known names, for listing edges of offline players
+    private static final Map<UUID, String> names = new HashMap<>();
+
+    // Compiled plans for the current roster, keyed by player entity
+    private static Map<ServerPlayer, LinkPlan> plans = new IdentityHashMap<>();
+    private static List<ServerPlayer> compiledSources = List.of();
+    private static ServerPlayer[] compiledTargets = new ServerPlayer[0];
+    private static int edgeCount = 0;
+
+    // Stats
+    private static long compilations = 0;
+
+    /**
+     * A listed edge, for commands
+     */
+    public record Edge(UUID source, String sourceName, UUID target, String targetName, float[] multipliers) {
+        public float multiplier(LinkStat stat) {
+            return multipliers[stat.ordinal()];
+        }
+    }
+
+    /**
+     * Whether any links are defined; without links everyone is linked to everyone
+     */
+    public static boolean hasLinks() {
+        return edgeCount > 0;
+    }
+
+    /**
+     * Compiled plan for an online player, or an empty plan
+     */
+    public static LinkPlan planFor(ServerPlayer source) {
+        return plans.getOrDefault(source, LinkPlan.EMPTY);
+    }
+
+    /**
+     * Add or replace the edge from source to target
+     */
+    public static void link(ServerPlayer source, ServerPlayer target, float[] multipliers) {
+        names.put(source.getUUID(), source.getGameProfile().getName());
+        names.put(target.getUUID(), target.getGameProfile().getName());
+        if (edges.computeIfAbsent(source.getUUID(), id -> new LinkedHashMap<>()).put(target.getUUID(), multipliers.clone()) == null) {
+            edgeCount++;
+        }
+        onGraphChanged();
+    }
+
+    /**
+     * Remove the edge from source to target
+     *
+     * @return false if there was no such edge
+     */
+    public static boolean unlink(UUID source, UUID target) {
+        Map<UUID, float[]> outgoing = edges.get(source);
+        if (outgoing == null || outgoing.remove(target) == null) {
+            return false;
+        }
+        if (outgoing.isEmpty()) {
+            edges.remove(source);
+        }
+        edgeCount--;
+        onGraphChanged();
+        return true;
+    }
+
+    /**
+     * Remove every edge, going back to all-to-all linking
+     */
+    public static void clear() {
+        edges.clear();
+        edgeCount = 0;
+        onGraphChanged();
+    }
+
+    public static List<Edge> listEdges() {
+        List<Edge> list = new ArrayList<>(edgeCount);
+        edges.forEach((source, outgoing) -> outgoing.forEach((target, multipliers) ->
+                list.add(new Edge(source, names.getOrDefault(source, source.toString()),
+                        target, names.getOrDefault(target, target.toString()), multipliers.clone()))));
+        return list;
+    }
+
+    /**
+     * Compile plans for every online player, reaching only eligible roster members.
+     * Called by the roster on every rebuild. Dead players keep their plan, so a shared
+     * death can still propagate from them.
+     */
+    public static void compile(List<ServerPlayer> sources, ServerPlayer[] members) {
+        compiledSources = sources;
+        compiledTargets = members;
+        Map<ServerPlayer, LinkPlan> compiled = new IdentityHashMap<>();
+        if (edgeCount == 0) {
+            plans = compiled;
+            return;
+        }
+
+        Map<UUID, ServerPlayer> byId = new HashMap<>();
+        for (ServerPlayer member : members) {
+            byId.put(member.getUUID(), member);
+        }
+
+        for (ServerPlayer source : sources) {
+            Map<UUID, float[]> outgoing = edges.get(source.getUUID());
+            if (outgoing == null) continue;
+
+            List<ServerPlayer> targets = new ArrayList<>(outgoing.size());
+            float[] multipliers = new float[outgoing.size() * LinkStat.COUNT];
+            for (Map.Entry<UUID, float[]> edge : outgoing.entrySet()) {
+                ServerPlayer target = byId.get(edge.getKey());
+                if (target == null || target == source) continue;
+                System.arraycopy(edge.getValue(), 0, multipliers, targets.size() * LinkStat.COUNT, LinkStat.COUNT);
+                targets.add(target);
+            }
+            if (!targets.isEmpty()) {
+                compiled.put(source, new LinkPlan(targets.toArray(new ServerPlayer[0]),
+                        Arrays.copyOf(multipliers, targets.size() * LinkStat.COUNT)));
+            }
+        }
+
+        plans = compiled;
+        compilations++;
+    }
+
+    private static void onGraphChanged() {
+        compile(compiledSources, compiledTargets);
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            LinkGraphSavedData.get(server.overworld()).setDirty();
+        }
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%d link(s) (%s), %d compiled plan(s), %d compilation(s)",
+                edgeCount, edgeCount == 0 ? "all-to-all" : "graph", plans.size(), compilations);
+    }
+
+    static void loadFromNBT(CompoundTag tag) {
+        edges.clear();
+        names.clear();
+        edgeCount = 0;
+
+        ListTag list = tag.getList("Links", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag entry = list.getCompound(i);
+            UUID source = entry.getUUID("Source");
+            UUID target = entry.getUUID("Target");
+            float[] multipliers = new float[LinkStat.COUNT];
+            for (LinkStat stat : LinkStat.VALUES) {
+                String key = statKey(stat);
+                multipliers[stat.ordinal()] = entry.contains(key) ? entry.getFloat(key) : 1.0f;
+            }
+            names.put(source, entry.getString("SourceName"));
+            names.put(target, entry.getString("TargetName"));
+            if (edges.computeIfAbsent(source, id -> new LinkedHashMap<>()).put(target, multipliers) == null) {
+                edgeCount++;
+            }
+        }
+        compile(compiledSources, compiledTargets);
+        SoulLink.LOGGER.info("Loaded {} Soul-Link link(s)", edgeCount);
+    }
+
+    static CompoundTag saveToNBT(CompoundTag tag) {
+        ListTag list = new ListTag();
+        for (Edge edge : listEdges()) {
+            CompoundTag entry = new CompoundTag();
+            entry.putUUID("Source", edge.source());
+            entry.putString("SourceName", edge.sourceName());
+            entry.putUUID("Target", edge.target());
+            entry.putString("TargetName", edge.targetName());
+            for (LinkStat stat : LinkStat.VALUES) {
+                entry.putFloat(statKey(stat), edge.multiplier(stat));
+            }
+            list.add(entry);
+        }
+        tag.put("Links", list);
+        return tag;
+    }
+
+    private static String statKey(LinkStat stat) {
+        String name = stat.name();
+        return name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        // Loading the data fills the graph
+        LinkGraphSavedData.get(event.getServer().overworld());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        edges.clear();
+        names.clear();
+        edgeCount = 0;
+        plans = new IdentityHashMap<>();
+        compiledSources = List.of();
+        compiledTargets = new ServerPlayer[0];
+    }
+}
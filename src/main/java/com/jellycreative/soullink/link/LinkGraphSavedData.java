@@ -0,0 +1,38 @@
+package com.jellycreative.soullink.link;
+
+import com.jellycreative.soullink.SoulLink;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Persists the {@link LinkGraph} with the overworld data
+ */
+public class LinkGraphSavedData extends SavedData {
+
+    private static final String DATA_NAME = SoulLink.MOD_ID + "_links";
+
+    public static LinkGraphSavedData load(CompoundTag tag) {
+        LinkGraph.loadFromNBT(tag);
+        return new LinkGraphSavedData();
+    }
+
+    @Override
+    @Nonnull
+    public CompoundTag save(@Nonnull CompoundTag tag) {
+        return LinkGraph.saveToNBT(tag);
+    }
+
+    /**
+     * Get or create the saved data for a server level
+     */
+    public static LinkGraphSavedData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(
+                LinkGraphSavedData::load,
+                LinkGraphSavedData::new,
+                DATA_NAME
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package com.jellycreative.soullink.link;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Flat propagation plan for one source player: the players its linked effects reach and
+ * the per-stat multiplier of every edge, stored as one array of LinkStat.COUNT floats per target.
+ *
+ * Plans are one hop by construction. Effects applied while walking a plan are never propagated
+ * again, so cycles in the link graph (A to B and B to A) cannot loop.
+ */
+public final class LinkPlan {
+
+    public static final LinkPlan EMPTY = new LinkPlan(new ServerPlayer[0], new float[0]);
+
+    private final ServerPlayer[] targets;
+
+    // targets.length * LinkStat.COUNT multipliers, or null when every multiplier is 1
+    private final float[] multipliers;
+
+    LinkPlan(ServerPlayer[] targets, float[] multipliers) {
+        this.targets = targets;
+        this.multipliers = multipliers;
+    }
+
+    /**
+     * Plan that reaches every given player at full strength (all-to-all linking).
+     * The array is shared, not copied.
+     */
+    public static LinkPlan uniform(ServerPlayer[] targets) {
+        return new LinkPlan(targets, null);
+    }
+
+    public int size() {
+        return targets.length;
+    }
+
+    public ServerPlayer target(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Edge multiplier for a stat, on top of the global multiplier from the config
+     */
+    public float multiplier(int index, LinkStat stat) {
+        return multipliers == null ? 1.0f : multipliers[index * LinkStat.COUNT + stat.ordinal()];
+    }
+
+    /**
+     * Plan restricted to the targets matching a filter (used for link scopes)
+     */
+    public LinkPlan filter(Predicate<ServerPlayer> keep) {
+        ServerPlayer[] kept = new ServerPlayer[targets.length];
+        float[] keptMultipliers = multipliers == null ? null : new float[multipliers.length];
+        int count = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (!keep.test(targets[i])) continue;
+            kept[count] = targets[i];
+            if (multipliers != null) {
+                System.arraycopy(multipliers, i * LinkStat.COUNT, keptMultipliers, count * LinkStat.COUNT, LinkStat.COUNT);
+            }
+            count++;
+        }
+        if (count == targets.length) {
+            return this;
+        }
+        return new LinkPlan(Arrays.copyOf(kept, count),
+                keptMultipliers == null ? null : Arrays.copyOf(keptMultipliers, count * LinkStat.COUNT));
+    }
+}
@@ -0,0 +1,14 @@
+package com.jellycreative.soullink.link;
+
+/**
+ * Effects a link edge carries, each with its own multiplier
+ */
+public enum LinkStat {
+    DAMAGE,     // Also decides whether a shared death follows the edge
+    HEALING,
+    KNOCKBACK,
+    HUNGER;
+
+    static final LinkStat[] VALUES = values();
+    static final int COUNT = VALUES.length;
+}
@@ -0,0 +1,58 @@
+package com.jellycreative.soullink.link;
+
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * A player stat that is linked by polling: captured once per tick for every linked player,
+ * diffed against the value seen last tick, and the changes fanned out along the link plans.
+ *
+ * Implementations only describe the stat; {@link LinkedAttributes} runs the shared pipeline,
+ * so a new linked stat needs no poller, tracking map or cleanup of its own.
+ * All methods are called on the server thread.
+ *
+ * @param <V> captured value, also used for changes; must not be mutated after it is returned
+ */
+public interface LinkedAttribute<V> {
+
+    /**
+     * Short name shown in /soullink stats
+     */
+    String id();
+
+    /**
+     * Whether the attribute is linked at all (usually a config toggle)
+     */
+    boolean isEnabled();
+
+    /**
+     * Link edge multiplier the attribute follows, or null to follow every edge at full strength
+     */
+    LinkStat stat();
+
+    /**
+     * Current value of the player
+     */
+    V capture(ServerPlayer player);
+
+    /**
+     * Change to propagate between two captures of the same player, or null if there is none
+     */
+    V diff(V previous, V current);
+
+    /**
+     * Change scaled by an edge multiplier (always above 0), or null if nothing is left
+     */
+    V scale(V change, float multiplier);
+
+    /**
+     * Merge two changes reaching the same target in one tick
+     */
+    V reduce(V a, V b);
+
+    /**
+     * Apply a merged change to a target, including whatever client sync the stat needs.
+     *
+     * @param source the first player whose change reached the target this tick
+     */
+    void apply(ServerPlayer target, V change, ServerPlayer source);
+}
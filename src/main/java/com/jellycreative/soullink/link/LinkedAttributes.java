@@ -0,0 +1,186 @@
+package com.jellycreative.soullink.link;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.handler.SoulLinkRoster;
+import com.jellycreative.soullink.link.attribute.AirSupplyAttribute;
+import com.jellycreative.soullink.link.attribute.EffectsAttribute;
+import com.jellycreative.soullink.link.attribute.ExperienceAttribute;
+import com.jellycreative.soullink.link.attribute.FreezeAttribute;
+import com.jellycreative.soullink.link.attribute.HungerAttribute;
+import com.jellycreative.soullink.link.attribute.SaturationAttribute;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Registry and per-tick pipeline for {@link LinkedAttribute}s.
+ *
+ * Once per tick, for every enabled attribute:
+ * 1. capture every linked player and diff against last tick's value,
+ * 2. fan each change out along the source's link plan, scaled per edge and reduced per target,
+ * 3. apply the merged change to each target once and re-capture its value, so applied
+ *    changes are never picked up as the target's own (propagation stays one hop).
+ *
+ * Values are tracked per player UUID and dropped on logout and respawn; the first capture
+ * after that only sets the baseline.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class LinkedAttributes {
+
+    // Registered attributes, in pipeline order (server thread only)
+    private static final List<Tracker<?>> trackers = new ArrayList<>();
+
+    static {
+        register(new HungerAttribute());
+        register(new SaturationAttribute());
+        register(new ExperienceAttribute());
+        register(new AirSupplyAttribute());
+        register(new FreezeAttribute());
+        register(new EffectsAttribute());
+    }
+
+    private static class Tracker<V> {
+        final LinkedAttribute<V> attribute;
+        final Map<UUID, V> baselines = new HashMap<>();
+
+        // Stats
+        long changesDetected = 0;
+        long changesApplied = 0;
+
+        Tracker(LinkedAttribute<V> attribute) {
+            this.attribute = attribute;
+        }
+
+        void run(ServerPlayer[] members) {
+            if (!attribute.isEnabled()) {
+                baselines.clear();
+                return;
+            }
+
+            // 1. Capture and diff
+            Map<ServerPlayer, V> changes = null;
+            for (ServerPlayer player : members) {
+                V current = attribute.capture(player);
+                V previous = baselines.put(player.getUUID(), current);
+                if (previous == null) continue;
+
+                V change = attribute.diff(previous, current);
+                if (change != null) {
+                    if (changes == null) changes = new IdentityHashMap<>();
+                    changes.put(player, change);
+                    changesDetected++;
+                }
+            }
+            if (changes == null) {
+                return;
+            }
+
+            // 2. Fan out and reduce per target
+            Map<ServerPlayer, V> merged = new IdentityHashMap<>();
+            Map<ServerPlayer, ServerPlayer> firstSource = new IdentityHashMap<>();
+            LinkStat stat = attribute.stat();
+            for (Map.Entry<ServerPlayer, V> entry : changes.entrySet()) {
+                ServerPlayer source = entry.getKey();
+                LinkPlan plan = SoulLinkRoster.plan(source);
+                for (int i = 0; i < plan.size(); i++) {
+                    ServerPlayer target = plan.target(i);
+                    float multiplier = stat == null ? 1.0f : plan.multiplier(i, stat);
+                    if (target == source || multiplier <= 0) {
+                        continue;
+                    }
+
+                    V scaled = attribute.scale(entry.getValue(), multiplier);
+                    if (scaled == null) continue;
+                    merged.merge(target, scaled, attribute::reduce);
+                    firstSource.putIfAbsent(target, source);
+                }
+            }
+
+            // 3. Apply once per target
+            for (Map.Entry<ServerPlayer, V> entry : merged.entrySet()) {
+                ServerPlayer target = entry.getKey();
+                if (target.isRemoved() || target.isDeadOrDying()) continue;
+
+                attribute.apply(target, entry.getValue(), firstSource.get(target));
+                baselines.put(target.getUUID(), attribute.capture(target));
+                changesApplied++;
+            }
+        }
+
+        String describe() {
+            return String.format("%s %d/%d", attribute.id(), changesDetected, changesApplied);
+        }
+    }
+
+    /**
+     * Add a linked attribute to the pipeline. Must be called before the server starts.
+     */
+    public static <V> void register(LinkedAttribute<V> attribute) {
+        trackers.add(new Tracker<>(attribute));
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return trackers.stream().map(Tracker::describe).collect(Collectors.joining(", "))
+                + " (changes detected/applied)";
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        long start = SoulLinkGovernor.begin();
+        if (!SoulLinkRoster.isActive()) {
+            // Nothing is linked; start from fresh baselines once the link is active again
+            for (Tracker<?> tracker : trackers) {
+                tracker.baselines.clear();
+            }
+        } else {
+            ServerPlayer[] members = SoulLinkRoster.members();
+            for (Tracker<?> tracker : trackers) {
+                tracker.run(members);
+            }
+        }
+        SoulLinkGovernor.end(start);
+    }
+
+    /**
+     * Respawning resets most stats, which must not propagate as a change
+     */
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        forget(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        forget(event.getEntity().getUUID());
+    }
+
+    private static void forget(UUID playerId) {
+        for (Tracker<?> tracker : trackers) {
+            tracker.baselines.remove(playerId);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        for (Tracker<?> tracker : trackers) {
+            tracker.baselines.clear();
+        }
+    }
+}
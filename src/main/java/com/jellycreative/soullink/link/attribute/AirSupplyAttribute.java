@@ -0,0 +1,56 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Air supply, linked as a level: while a player runs out of air, linked players
+ * cannot hold more than they have. Air recovers normally once nobody is losing it.
+ * The vanilla entity data sync sends the result to the client.
+ */
+public class AirSupplyAttribute implements LinkedAttribute<Integer> {
+
+    @Override
+    public String id() {
+        return "air";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_AIR_SUPPLY.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return null;
+    }
+
+    @Override
+    public Integer capture(ServerPlayer player) {
+        return player.getAirSupply();
+    }
+
+    @Override
+    public Integer diff(Integer previous, Integer current) {
+        return current < previous ? current : null;
+    }
+
+    @Override
+    public Integer scale(Integer change, float multiplier) {
+        return change;
+    }
+
+    @Override
+    public Integer reduce(Integer a, Integer b) {
+        return Math.min(a, b);
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Integer change, ServerPlayer source) {
+        if (target.getAirSupply() > change) {
+            target.setAirSupply(change);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.effect.MobEffect;
+import net.minecraft.world.effect.MobEffectInstance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Potion effects: an effect a player gains, upgrades or refreshes is given to linked
+ * players as well, with its duration scaled by the edge multiplier. Ambient effects
+ * (beacons, conduits) belong to a place and are not shared; effects simply running
+ * out are not shared either. Adding the effect sends it to the client.
+ */
+public class EffectsAttribute implements LinkedAttribute<Map<MobEffect, EffectsAttribute.State>> {
+
+    /**
+     * Captured state of one effect
+     */
+    public record State(int amplifier, int duration, boolean visible, boolean showIcon) {
+
+        boolean isInfinite() {
+            return duration == MobEffectInstance.INFINITE_DURATION;
+        }
+
+        /**
+         * Remaining duration for comparisons, infinite being the longest
+         */
+        int remaining() {
+            return isInfinite() ? Integer.MAX_VALUE : duration;
+        }
+
+        boolean isStrongerThan(State other) {
+            if (amplifier != other.amplifier) {
+                return amplifier > other.amplifier;
+            }
+            return remaining() > other.remaining();
+        }
+    }
+
+    @Override
+    public String id() {
+        return "effects";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_EFFECTS.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return null;
+    }
+
+    @Override
+    public Map<MobEffect, State> capture(ServerPlayer player) {
+        if (player.getActiveEffects().isEmpty()) {
+            return Map.of();
+        }
+
+        Map<MobEffect, State> effects = new HashMap<>();
+        for (MobEffectInstance instance : player.getActiveEffects()) {
+            if (instance.isAmbient()) continue;
+            effects.put(instance.getEffect(), new State(instance.getAmplifier(), instance.getDuration(),
+                    instance.isVisible(), instance.showIcon()));
+        }
+        return effects;
+    }
+
+    @Override
+    public Map<MobEffect, State> diff(Map<MobEffect, State> previous, Map<MobEffect, State> current) {
+        Map<MobEffect, State> gained = null;
+        for (Map.Entry<MobEffect, State> entry : current.entrySet()) {
+            State before = previous.get(entry.getKey());
+            State now = entry.getValue();
+            // An effect that only ticked down is one tick shorter and the same strength
+            if (before == null || now.amplifier() > before.amplifier() || now.remaining() > before.remaining()) {
+                if (gained == null) gained = new HashMap<>();
+                gained.put(entry.getKey(), now);
+            }
+        }
+        return gained;
+    }
+
+    @Override
+    public Map<MobEffect, State> scale(Map<MobEffect, State> change, float multiplier) {
+        if (multiplier == 1.0f) {
+            return change;
+        }
+
+        Map<MobEffect, State> scaled = new HashMap<>();
+        for (Map.Entry<MobEffect, State> entry : change.entrySet()) {
+            State state = entry.getValue();
+            if (state.isInfinite()) {
+                scaled.put(entry.getKey(), state);
+                continue;
+            }
+            int duration = Math.round(state.duration() * multiplier);
+            if (duration > 0) {
+                scaled.put(entry.getKey(), new State(state.amplifier(), duration, state.visible(), state.showIcon()));
+            }
+        }
+        return scaled.isEmpty() ? null : scaled;
+    }
+
+    @Override
+    public Map<MobEffect, State> reduce(Map<MobEffect, State> a, Map<MobEffect, State> b) {
+        Map<MobEffect, State> merged = new HashMap<>(a);
+        b.forEach((effect, state) -> merged.merge(effect, state,
+                (existing, added) -> added.isStrongerThan(existing) ? added : existing));
+        return merged;
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Map<MobEffect, State> change, ServerPlayer source) {
+        change.forEach((effect, state) -> {
+            // addEffect keeps whichever of the old and new instance is stronger or longer
+            target.addEffect(new MobEffectInstance(effect, state.duration(), state.amplifier(),
+                    false, state.visible(), state.showIcon()), source);
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Experience, linked as a relative change in points.
+ *
+ * Points are derived from level and progress rather than the player's total score,
+ * which vanilla does not lower when levels are spent on enchanting or repairs.
+ * The vanilla experience sync sends the result to the client.
+ */
+public class ExperienceAttribute implements LinkedAttribute<Integer> {
+
+    @Override
+    public String id() {
+        return "experience";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_EXPERIENCE.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return null;
+    }
+
+    @Override
+    public Integer capture(ServerPlayer player) {
+        return pointsForLevel(player.experienceLevel) + Math.round(player.experienceProgress * player.getXpNeededForNextLevel());
+    }
+
+    @Override
+    public Integer diff(Integer previous, Integer current) {
+        int change = current - previous;
+        return change != 0 ? change : null;
+    }
+
+    @Override
+    public Integer scale(Integer change, float multiplier) {
+        int scaled = Math.round(change * multiplier);
+        return scaled != 0 ? scaled : null;
+    }
+
+    @Override
+    public Integer reduce(Integer a, Integer b) {
+        return a + b;
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Integer change, ServerPlayer source) {
+        // Losses never take a player below zero points
+        int points = Math.max(change, -capture(target));
+        if (points != 0) {
+            target.giveExperiencePoints(points);
+        }
+    }
+
+    /**
+     * Points needed to reach a level from zero (same curve as Player.getXpNeededForNextLevel)
+     */
+    private static int pointsForLevel(int level) {
+        if (level <= 16) {
+            return level * level + 6 * level;
+        }
+        if (level <= 31) {
+            return (int) (2.5 * level * level - 40.5 * level + 360);
+        }
+        return (int) (4.5 * level * level - 162.5 * level + 2220);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Powder snow freezing, linked as a level: while a player freezes, linked players
+ * are at least as frozen. They thaw normally once nobody is freezing.
+ * The vanilla entity data sync sends the result to the client.
+ */
+public class FreezeAttribute implements LinkedAttribute<Integer> {
+
+    @Override
+    public String id() {
+        return "freezing";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_FREEZING.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return null;
+    }
+
+    @Override
+    public Integer capture(ServerPlayer player) {
+        return player.getTicksFrozen();
+    }
+
+    @Override
+    public Integer diff(Integer previous, Integer current) {
+        return current > previous ? current : null;
+    }
+
+    @Override
+    public Integer scale(Integer change, float multiplier) {
+        return change;
+    }
+
+    @Override
+    public Integer reduce(Integer a, Integer b) {
+        return Math.max(a, b);
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Integer change, ServerPlayer source) {
+        if (target.getTicksFrozen() < change) {
+            target.setTicksFrozen(change);
+        }
+    }
+}
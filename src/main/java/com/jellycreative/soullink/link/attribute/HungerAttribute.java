@@ -0,0 +1,70 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import com.jellycreative.soullink.network.SoulLinkNetwork;
+import com.jellycreative.soullink.network.SyncHungerPacket;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Food level, linked as a relative change
+ */
+public class HungerAttribute implements LinkedAttribute<Integer> {
+
+    @Override
+    public String id() {
+        return "hunger";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_HUNGER.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return LinkStat.HUNGER;
+    }
+
+    @Override
+    public Integer capture(ServerPlayer player) {
+        return player.getFoodData().getFoodLevel();
+    }
+
+    @Override
+    public Integer diff(Integer previous, Integer current) {
+        int change = current - previous;
+        return change != 0 ? change : null;
+    }
+
+    @Override
+    public Integer scale(Integer change, float multiplier) {
+        int scaled = Math.round(change * multiplier * SoulLinkConfig.HUNGER_MULTIPLIER.get().floatValue());
+        return scaled != 0 ? scaled : null;
+    }
+
+    @Override
+    public Integer reduce(Integer a, Integer b) {
+        return a + b;
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Integer change, ServerPlayer source) {
+        int newFoodLevel = Math.max(0, Math.min(20, target.getFoodData().getFoodLevel() + change));
+        target.getFoodData().setFoodLevel(newFoodLevel);
+        SoulLinkNetwork.sendToPlayer(new SyncHungerPacket(
+                target.getFoodData().getFoodLevel(),
+                target.getFoodData().getSaturationLevel()
+        ), target);
+
+        if (SoulLinkConfig.SHOW_LINK_MESSAGES.get() && SoulLinkGovernor.allowCosmetic()) {
+            String message = change > 0
+                    ? "§a[Soul-Link] §7You shared §a" + source.getName().getString() + "'s§7 meal!"
+                    : "§6[Soul-Link] §7You felt §6" + source.getName().getString() + "'s§7 hunger!";
+            SoulLinkNetwork.sendFeedback(target, Component.literal(message), true);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.jellycreative.soullink.link.attribute;
+
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.link.LinkStat;
+import com.jellycreative.soullink.link.LinkedAttribute;
+import com.jellycreative.soullink.network.SoulLinkNetwork;
+import com.jellycreative.soullink.network.SyncHungerPacket;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Saturation, linked as a relative change on the hunger edges
+ */
+public class SaturationAttribute implements LinkedAttribute<Float> {
+
+    // Smaller changes are float noise
+    private static final float THRESHOLD = 0.001f;
+
+    @Override
+    public String id() {
+        return "saturation";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return SoulLinkConfig.LINK_SATURATION.get();
+    }
+
+    @Override
+    public LinkStat stat() {
+        return LinkStat.HUNGER;
+    }
+
+    @Override
+    public Float capture(ServerPlayer player) {
+        return player.getFoodData().getSaturationLevel();
+    }
+
+    @Override
+    public Float diff(Float previous, Float current) {
+        float change = current - previous;
+        return Math.abs(change) >= THRESHOLD ? change : null;
+    }
+
+    @Override
+    public Float scale(Float change, float multiplier) {
+        float scaled = change * multiplier * SoulLinkConfig.HUNGER_MULTIPLIER.get().floatValue();
+        return Math.abs(scaled) >= THRESHOLD ? scaled : null;
+    }
+
+    @Override
+    public Float reduce(Float a, Float b) {
+        return a + b;
+    }
+
+    @Override
+    public void apply(ServerPlayer target, Float change, ServerPlayer source) {
+        float newSaturation = Math.max(0, Math.min(20, target.getFoodData().getSaturationLevel() + change));
+        target.getFoodData().setSaturation(newSaturation);
+        SoulLinkNetwork.sendToPlayer(new SyncHungerPacket(
+                target.getFoodData().getFoodLevel(),
+                target.getFoodData().getSaturationLevel()
+        ), target);
+    }
+}
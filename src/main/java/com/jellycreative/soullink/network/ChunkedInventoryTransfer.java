@@ -0,0 +1,154 @@
+package com.jellycreative.soullink.network;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flow-controlled transfer of inventory syncs too large for a single packet.
+ *
+ * Oversized {@link SyncInventoryPacket}s are split into {@link InventoryChunkPacket}s of at most
+ * CHUNK_SIZE bytes. At most WINDOW chunks per player are unacknowledged at any time; the rest go
+ * out with later packet queue flushes, so vitals and other small packets keep flowing in between.
+ *
+ * Inventory syncs queued while a transfer is running are held back and merged, then sent once the
+ * transfer is acknowledged - a newer sync can never be overwritten by an older one still in flight.
+ *
+ * All state is touched on the server thread only.
+ */
+public class ChunkedInventoryTransfer {
+
+    // Largest chunk payload; syncs that encode to more than this are chunked
+    static final int CHUNK_SIZE = 32 * 1024;
+
+    // Unacknowledged chunks allowed per player
+    private static final int WINDOW = 4;
+
+    private static final Map<UUID, Transfer> transfers = new HashMap<>();
+    private static int nextTransferId = 0;
+
+    // Stats
+    private static long transfersStarted = 0;
+    private static long transfersCompleted = 0;
+    private static long chunksSent = 0;
+
+    private static class Transfer {
+        final ServerPlayer player;
+        final int id;
+        final byte[] payload;
+        final int chunkCount;
+        int nextChunk = 0;
+        int inFlight = 0;
+
+        // Chunks the client has acknowledged, each counted once
+        final BitSet acked;
+
+        // Syncs queued behind this transfer, merged into one
+        SyncInventoryPacket held;
+
+        Transfer(ServerPlayer player, byte[] payload) {
+            this.player = player;
+            this.id = nextTransferId++;
+            this.payload = payload;
+            this.chunkCount = (payload.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            this.acked = new BitSet(chunkCount);
+        }
+    }
+
+    /**
+     * Take over an inventory sync if it is oversized or another transfer to the player is running.
+     *
+     * @return true if the packet must not be sent by the caller
+     */
+    static boolean intercept(ServerPlayer player, SyncInventoryPacket packet) {
+        Transfer active = transfers.get(player.getUUID());
+        if (active != null) {
+            active.held = active.held == null ? packet : (SyncInventoryPacket) active.held.coalesce(packet);
+            return true;
+        }
+
+        byte[] payload = packet.getEncoded();
+        if (payload.length <= CHUNK_SIZE) {
+            return false;
+        }
+
+        transfers.put(player.getUUID(), new Transfer(player, payload));
+        transfersStarted++;
+        return true;
+    }
+
+    /**
+     * Add the chunks the player's window has room for
+     */
+    static void collectChunks(ServerPlayer player, List<Object> out) {
+        Transfer transfer = transfers.get(player.getUUID());
+        if (transfer == null) {
+            return;
+        }
+
+        while (transfer.inFlight < WINDOW && transfer.nextChunk < transfer.chunkCount) {
+            int index = transfer.nextChunk++;
+            int from = index * CHUNK_SIZE;
+            int length = Math.min(CHUNK_SIZE, transfer.payload.length - from);
+            byte[] data = new byte[length];
+            System.arraycopy(transfer.payload, from, data, 0, length);
+
+            out.add(new InventoryChunkPacket(transfer.id, index, transfer.chunkCount, transfer.payload.length, data));
+            transfer.inFlight++;
+            chunksSent++;
+        }
+    }
+
+    /**
+     * Players with chunks still to send, so the queue flushes them even without other packets
+     */
+    static Iterator<ServerPlayer> playersWithPendingChunks() {
+        return transfers.values().stream()
+                .filter(transfer -> transfer.nextChunk < transfer.chunkCount && transfer.inFlight < WINDOW)
+                .map(transfer -> transfer.player)
+                .iterator();
+    }
+
+    static void onAck(ServerPlayer player, int transferId, int index) {
+        Transfer transfer = transfers.get(player.getUUID());
+        if (transfer == null || transfer.id != transferId || index < 0 || index >= transfer.nextChunk
+                || transfer.acked.get(index)) {
+            return; // Stale, repeated or bogus ack
+        }
+
+        transfer.acked.set(index);
+        transfer.inFlight = Math.max(0, transfer.inFlight - 1);
+        if (transfer.acked.cardinality() < transfer.chunkCount) {
+            return;
+        }
+
+        transfers.remove(player.getUUID());
+        transfersCompleted++;
+
+        // Release whatever queued up behind the transfer - it may start a new transfer itself
+        if (transfer.held != null) {
+            SoulLinkPacketQueue.enqueue(transfer.held, player);
+        }
+    }
+
+    static void remove(UUID playerId) {
+        transfers.remove(playerId);
+    }
+
+    static void clear() {
+        transfers.clear();
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%d started, %d completed, %d active, %d chunk(s) sent",
+                transfersStarted, transfersCompleted, transfers.size(), chunksSent);
+    }
+}
@@ -0,0 +1,23 @@
+package com.jellycreative.soullink.network;
+
+/**
+ * A packet that can be superseded by a newer packet of the same kind queued for the same player
+ * within one tick. Only the result of {@link #coalesce} is sent when the queue is flushed.
+ */
+public interface CoalescingPacket {
+
+    /**
+     * Packets with equal keys supersede each other. Defaults to one packet per type.
+     */
+    default Object coalesceKey() {
+        return getClass();
+    }
+
+    /**
+     * Combine this (older) packet with a newer one of the same key.
+     * Defaults to the newer packet replacing this one.
+     */
+    default Object coalesce(Object newer) {
+        return newer;
+    }
+}
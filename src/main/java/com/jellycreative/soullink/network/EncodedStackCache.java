@@ -0,0 +1,157 @@
+package com.jellycreative.soullink.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache of network-encoded item stacks, keyed by a fingerprint of the stack
+ * (item, count and share tag). Inventory syncs reuse the bytes of every slot that has
+ * not changed instead of running writeItem for it again.
+ */
+public class EncodedStackCache {
+
+    private static final int MAX_ENTRIES = 512;
+
+    private static final byte[] EMPTY_STACK = encodeEmpty();
+
+    // Access-ordered so the least recently used entry is evicted first
+    private static final LinkedHashMap<Snapshot, byte[]> cache = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Snapshot, byte[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Get the writeItem bytes for a stack, encoding it only on a cache miss.
+     * Server thread only: resolving the share tag runs item code.
+     */
+    public static byte[] get(ItemStack stack) {
+        return get(snapshot(stack));
+    }
+
+    /**
+     * Wire form of a stack, resolved the way Forge's writeItem does. Server thread only:
+     * isDamageable and getShareTag are item code, and may read capabilities.
+     */
+    public static Snapshot snapshot(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return Snapshot.EMPTY;
+        }
+
+        Item item = stack.getItem();
+        CompoundTag tag = null;
+        if (item.isDamageable(stack) || item.shouldOverrideMultiplayerNbt()) {
+            tag = stack.getShareTag();
+        }
+        // The share tag may be built fresh or be the stack's own tag - keep a private copy
+        return new Snapshot(item, stack.getCount(), tag == null ? null : tag.copy());
+    }
+
+    /**
+     * Get the writeItem bytes for a snapshot, encoding it only on a cache miss.
+     * Safe on any thread: snapshots are plain data and are never modified.
+     */
+    public static byte[] get(Snapshot snapshot) {
+        if (snapshot == Snapshot.EMPTY) {
+            return EMPTY_STACK;
+        }
+
+        synchronized (cache) {
+            byte[] bytes = cache.get(snapshot);
+            if (bytes != null) {
+                hits++;
+                return bytes;
+            }
+            misses++;
+        }
+
+        byte[] bytes = encode(snapshot);
+        synchronized (cache) {
+            cache.put(snapshot, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Same layout as writeItem, from the already resolved wire form
+     */
+    private static byte[] encode(Snapshot snapshot) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(64));
+        try {
+            buf.writeBoolean(true);
+            buf.writeId(BuiltInRegistries.ITEM, snapshot.item);
+            buf.writeByte(snapshot.count);
+            buf.writeNbt(snapshot.tag);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static byte[] encodeEmpty() {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(1));
+        try {
+            buf.writeBoolean(false);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        synchronized (cache) {
+            return String.format("%d entries, %d hits, %d misses", cache.size(), hits, misses);
+        }
+    }
+
+    /**
+     * What writeItem writes for a stack: item, count and the tag sent to clients (the share tag,
+     * or none for items that do not send one). Doubles as the cache key, so the cache can never
+     * return bytes for a different share tag.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, 0, null);
+
+        private final Item item;
+        private final int count;
+        private final CompoundTag tag;
+        private final int hash;
+
+        private Snapshot(Item item, int count, CompoundTag tag) {
+            this.item = item;
+            this.count = count;
+            this.tag = tag;
+            this.hash = Objects.hash(item, count, tag);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Snapshot snapshot && hash == snapshot.hash && item == snapshot.item
+                    && count == snapshot.count && Objects.equals(tag, snapshot.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
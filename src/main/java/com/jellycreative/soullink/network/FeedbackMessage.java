@@ -0,0 +1,40 @@
+package com.jellycreative.soullink.network;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+
+/**
+ * Cosmetic link feedback (chat or action bar message) routed through the packet queue,
+ * so it is sent with the lowest priority and can be deferred or dropped when a player's
+ * bandwidth budget runs out. Only the latest action bar message queued for a player is kept.
+ */
+public class FeedbackMessage implements CoalescingPacket {
+    private final Component message;
+    private final boolean actionBar;
+
+    // Server tick the message was queued in, to drop feedback that is no longer current
+    final int queuedTick;
+
+    FeedbackMessage(Component message, boolean actionBar, int queuedTick) {
+        this.message = message;
+        this.actionBar = actionBar;
+        this.queuedTick = queuedTick;
+    }
+
+    @Override
+    public Object coalesceKey() {
+        // Chat messages never supersede each other
+        return actionBar ? FeedbackMessage.class : this;
+    }
+
+    ClientboundSystemChatPacket toVanillaPacket() {
+        return new ClientboundSystemChatPacket(message, actionBar);
+    }
+
+    /**
+     * Rough wire size, for the bandwidth budget
+     */
+    int estimatedSize() {
+        return message.getString().length() + 16;
+    }
+}
@@ -0,0 +1,40 @@
+package com.jellycreative.soullink.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Client acknowledgement of one {@link InventoryChunkPacket}.
+ * Frees a slot in the player's in-flight window on the server.
+ */
+public class InventoryChunkAckPacket {
+    private final int transferId;
+    private final int index;
+
+    public InventoryChunkAckPacket(int transferId, int index) {
+        this.transferId = transferId;
+        this.index = index;
+    }
+
+    public static void encode(InventoryChunkAckPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.transferId);
+        buf.writeVarInt(packet.index);
+    }
+
+    public static InventoryChunkAckPacket decode(FriendlyByteBuf buf) {
+        return new InventoryChunkAckPacket(buf.readVarInt(), buf.readVarInt());
+    }
+
+    public static void handle(InventoryChunkAckPacket packet, Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            ServerPlayer player = ctx.get().getSender();
+            if (player != null) {
+                ChunkedInventoryTransfer.onAck(player, packet.transferId, packet.index);
+            }
+        });
+        ctx.get().setPacketHandled(true);
+    }
+}
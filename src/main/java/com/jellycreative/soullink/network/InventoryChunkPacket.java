@@ -0,0 +1,105 @@
+package com.jellycreative.soullink.network;
+
+import com.jellycreative.soullink.SoulLink;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * One chunk of an oversized {@link SyncInventoryPacket}, sent by {@link ChunkedInventoryTransfer}.
+ * The client acknowledges every chunk and applies the inventory only once all chunks of a
+ * transfer have arrived, so a large sync is still applied atomically.
+ */
+public class InventoryChunkPacket {
+    private final int transferId;
+    private final int index;
+    private final int chunkCount;
+    private final int totalLength;
+    private final byte[] data;
+
+    // Client-side reassembly state (client thread only)
+    private static int receivingId = -1;
+    private static byte[] receiving;
+    private static boolean[] receivedChunks;
+    private static int receivedCount;
+
+    public InventoryChunkPacket(int transferId, int index, int chunkCount, int totalLength, byte[] data) {
+        this.transferId = transferId;
+        this.index = index;
+        this.chunkCount = chunkCount;
+        this.totalLength = totalLength;
+        this.data = data;
+    }
+
+    /**
+     * Rough wire size, for the bandwidth budget
+     */
+    int estimatedSize() {
+        return data.length + 16;
+    }
+
+    public static void encode(InventoryChunkPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.transferId);
+        buf.writeVarInt(packet.index);
+        buf.writeVarInt(packet.chunkCount);
+        buf.writeVarInt(packet.totalLength);
+        buf.writeByteArray(packet.data);
+    }
+
+    public static InventoryChunkPacket decode(FriendlyByteBuf buf) {
+        int transferId = buf.readVarInt();
+        int index = buf.readVarInt();
+        int chunkCount = buf.readVarInt();
+        int totalLength = buf.readVarInt();
+        byte[] data = buf.readByteArray(ChunkedInventoryTransfer.CHUNK_SIZE);
+        return new InventoryChunkPacket(transferId, index, chunkCount, totalLength, data);
+    }
+
+    public static void handle(InventoryChunkPacket packet, Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            // Acknowledge first so the server can keep its window full while we reassemble
+            SoulLinkNetwork.CHANNEL.sendToServer(new InventoryChunkAckPacket(packet.transferId, packet.index));
+            receive(packet);
+        });
+        ctx.get().setPacketHandled(true);
+    }
+
+    private static void receive(InventoryChunkPacket packet) {
+        if (packet.transferId != receivingId) {
+            // A new transfer supersedes any incomplete one
+            receivingId = packet.transferId;
+            receiving = new byte[packet.totalLength];
+            receivedChunks = new boolean[packet.chunkCount];
+            receivedCount = 0;
+        }
+
+        int offset = packet.index * ChunkedInventoryTransfer.CHUNK_SIZE;
+        if (packet.index < 0 || packet.index >= receivedChunks.length || offset + packet.data.length > receiving.length) {
+            SoulLink.LOGGER.warn("Dropping out of range inventory chunk {} of transfer {}", packet.index, packet.transferId);
+            return;
+        }
+        if (receivedChunks[packet.index]) {
+            return;
+        }
+
+        System.arraycopy(packet.data, 0, receiving, offset, packet.data.length);
+        receivedChunks[packet.index] = true;
+        receivedCount++;
+
+        if (receivedCount == receivedChunks.length) {
+            byte[] complete = receiving;
+            receivingId = -1;
+            receiving = null;
+            receivedChunks = null;
+
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(complete));
+            try {
+                SyncInventoryPacket.applyOnClient(SyncInventoryPacket.decode(buf));
+            } finally {
+                buf.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.jellycreative.soullink.network;
+
+import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Client report of a hash per shared inventory slot (anti-entropy).
+ * The server compares it with the canonical slots and resends only the slots that differ.
+ */
+public class InventoryHashPacket {
+    private final int[] hashes;
+
+    public InventoryHashPacket(int[] hashes) {
+        this.hashes = hashes;
+    }
+
+    /**
+     * Slot hash from the item id, count and the tag as the client receives it.
+     * The server passes the share tag, the client the tag of its local stack.
+     */
+    public static int slotHash(ItemStack stack, CompoundTag tag) {
+        if (stack.isEmpty()) {
+            return 0;
+        }
+        int hash = BuiltInRegistries.ITEM.getId(stack.getItem());
+        hash = 31 * hash + stack.getCount();
+        hash = 31 * hash + (tag == null ? 0 : tag.hashCode());
+        return hash;
+    }
+
+    public static void encode(InventoryHashPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarIntArray(packet.hashes);
+    }
+
+    public static InventoryHashPacket decode(FriendlyByteBuf buf) {
+        return new InventoryHashPacket(buf.readVarIntArray(SharedInventoryManager.INVENTORY_SIZE));
+    }
+
+    public static void handle(InventoryHashPacket packet, Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            ServerPlayer player = ctx.get().getSender();
+            if (player != null) {
+                SharedInventoryManager.onClientInventoryHashes(player, packet.hashes);
+            }
+        });
+        ctx.get().setPacketHandled(true);
+    }
+}
@@ -10,8 +10,9 @@ import java.util.function.Supplier;
 /**
  * Packet to sync knockback to the client.
  * This allows linked players to receive the same knockback as the damaged player.
+ * Knockback queued in the same tick is summed into a single packet.
  */
-public class KnockbackPacket {
+public class KnockbackPacket implements CoalescingPacket {
     private final double motionX;
     private final double motionY;
     private final double motionZ;
@@ -26,6 +27,12 @@ public class KnockbackPacket {
         this(motion.x, motion.y, motion.z);
     }
 
+    @Override
+    public Object coalesce(Object newer) {
+        KnockbackPacket other = (KnockbackPacket) newer;
+        return new KnockbackPacket(motionX + other.motionX, motionY + other.motionY, motionZ + other.motionZ);
+    }
+
     public static void encode(KnockbackPacket packet, FriendlyByteBuf buf) {
         buf.writeDouble(packet.motionX);
         buf.writeDouble(packet.motionY);
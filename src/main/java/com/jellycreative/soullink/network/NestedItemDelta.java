@@ -0,0 +1,179 @@
+package com.jellycreative.soullink.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Structural diff of the items stored inside a container item (shulker boxes and other
+ * block items that keep their contents in {@code BlockEntityTag.Items}).
+ *
+ * When only the nested contents of a slot changed, the sync sends the changed nested slots
+ * instead of the whole stack, and the client patches the stack it already has.
+ * Bundles keep an unslotted list that shifts on every insert, so they are always sent whole.
+ */
+public class NestedItemDelta {
+
+    private static final String BLOCK_ENTITY_TAG = "BlockEntityTag";
+    private static final String ITEMS = "Items";
+    private static final String SLOT = "Slot";
+
+    // Changed nested slots and their new entries (null = slot emptied)
+    private final int[] nestedSlots;
+    private final CompoundTag[] entries;
+
+    // Wire form, built once on the server
+    private byte[] encoded;
+
+    private NestedItemDelta(int[] nestedSlots, CompoundTag[] entries) {
+        this.nestedSlots = nestedSlots;
+        this.entries = entries;
+    }
+
+    /**
+     * Diff two versions of a container item.
+     * Returns null if anything besides the nested items differs, or if the delta would not be
+     * smaller than sending the new stack whole.
+     */
+    public static NestedItemDelta between(ItemStack from, ItemStack to) {
+        if (from.isEmpty() || to.isEmpty() || from.getItem() != to.getItem() || from.getCount() != to.getCount()) {
+            return null;
+        }
+
+        ListTag fromItems = nestedItems(from.getTag());
+        ListTag toItems = nestedItems(to.getTag());
+        if (fromItems == null || toItems == null || fromItems.isEmpty() || toItems.isEmpty()) {
+            return null;
+        }
+        if (!withoutNestedItems(from.getTag()).equals(withoutNestedItems(to.getTag()))) {
+            return null;
+        }
+
+        Map<Integer, CompoundTag> before = bySlot(fromItems);
+        Map<Integer, CompoundTag> after = bySlot(toItems);
+        if (before == null || after == null) {
+            return null;
+        }
+
+        TreeMap<Integer, CompoundTag> changes = new TreeMap<>();
+        for (Map.Entry<Integer, CompoundTag> entry : after.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                changes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Integer slot : before.keySet()) {
+            if (!after.containsKey(slot)) {
+                changes.put(slot, null);
+            }
+        }
+        if (changes.isEmpty() || changes.size() > 255) {
+            return null;
+        }
+
+        int[] slots = changes.keySet().stream().mapToInt(Integer::intValue).toArray();
+        NestedItemDelta delta = new NestedItemDelta(slots, changes.values().toArray(new CompoundTag[0]));
+        return delta.getEncoded().length < EncodedStackCache.get(to).length ? delta : null;
+    }
+
+    public int getChangeCount() {
+        return nestedSlots.length;
+    }
+
+    byte[] getEncoded() {
+        if (encoded == null) {
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(64));
+            try {
+                buf.writeByte(nestedSlots.length);
+                for (int i = 0; i < nestedSlots.length; i++) {
+                    buf.writeByte(nestedSlots[i]);
+                    buf.writeNbt(entries[i]);
+                }
+                encoded = new byte[buf.readableBytes()];
+                buf.readBytes(encoded);
+            } finally {
+                buf.release();
+            }
+        }
+        return encoded;
+    }
+
+    static NestedItemDelta read(FriendlyByteBuf buf) {
+        int count = buf.readUnsignedByte();
+        int[] slots = new int[count];
+        CompoundTag[] entries = new CompoundTag[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = buf.readUnsignedByte();
+            entries[i] = buf.readNbt();
+        }
+        return new NestedItemDelta(slots, entries);
+    }
+
+    /**
+     * Patch a stack's nested items in place (client side).
+     *
+     * @return false if the stack is not the container this delta was made for
+     */
+    boolean applyTo(ItemStack stack) {
+        ListTag items = nestedItems(stack.getTag());
+        if (items == null || items.isEmpty()) {
+            return false;
+        }
+
+        Map<Integer, CompoundTag> bySlot = bySlot(items);
+        if (bySlot == null) {
+            return false;
+        }
+        for (int i = 0; i < nestedSlots.length; i++) {
+            if (entries[i] == null) {
+                bySlot.remove(nestedSlots[i]);
+            } else {
+                bySlot.put(nestedSlots[i], entries[i]);
+            }
+        }
+
+        // Written back in slot order, the same order containers save their items in
+        items.clear();
+        items.addAll(bySlot.values());
+        return true;
+    }
+
+    private static ListTag nestedItems(CompoundTag tag) {
+        if (tag == null || !tag.contains(BLOCK_ENTITY_TAG, Tag.TAG_COMPOUND)) {
+            return null;
+        }
+        CompoundTag blockEntityTag = tag.getCompound(BLOCK_ENTITY_TAG);
+        if (!blockEntityTag.contains(ITEMS, Tag.TAG_LIST)) {
+            return null;
+        }
+        return blockEntityTag.getList(ITEMS, Tag.TAG_COMPOUND);
+    }
+
+    private static CompoundTag withoutNestedItems(CompoundTag tag) {
+        CompoundTag copy = tag.copy();
+        copy.getCompound(BLOCK_ENTITY_TAG).remove(ITEMS);
+        return copy;
+    }
+
+    /**
+     * Index a slotted item list, or null if it has entries without a slot or duplicate slots
+     */
+    private static Map<Integer, CompoundTag> bySlot(ListTag items) {
+        Map<Integer, CompoundTag> bySlot = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            CompoundTag entry = items.getCompound(i);
+            if (!entry.contains(SLOT, Tag.TAG_BYTE)) {
+                return null;
+            }
+            if (bySlot.put(entry.getByte(SLOT) & 0xFF, entry) != null) {
+                return null;
+            }
+        }
+        return bySlot;
+    }
+}
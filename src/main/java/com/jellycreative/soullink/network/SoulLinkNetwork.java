@@ -1,19 +1,22 @@
 package com.jellycreative.soullink.network;
 
 import com.jellycreative.soullink.SoulLink;
+import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.NetworkRegistry;
 import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 /**
  * Handles network communication for Soul-Link.
  * Used to sync knockback and other effects to clients.
  */
 public class SoulLinkNetwork {
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "5";
     
     public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
             new ResourceLocation(SoulLink.MOD_ID, "main"),
@@ -49,20 +52,63 @@ public class SoulLinkNetwork {
                 .consumerMainThread(SyncInventoryPacket::handle)
                 .add();
         
+        CHANNEL.messageBuilder(InventoryChunkPacket.class, packetId++, NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(InventoryChunkPacket::decode)
+                .encoder(InventoryChunkPacket::encode)
+                .consumerMainThread(InventoryChunkPacket::handle)
+                .add();
+        
+        CHANNEL.messageBuilder(InventoryChunkAckPacket.class, packetId++, NetworkDirection.PLAY_TO_SERVER)
+                .decoder(InventoryChunkAckPacket::decode)
+                .encoder(InventoryChunkAckPacket::encode)
+                .consumerMainThread(InventoryChunkAckPacket::handle)
+                .add();
+        
+        CHANNEL.messageBuilder(InventoryHashPacket.class, packetId++, NetworkDirection.PLAY_TO_SERVER)
+                .decoder(InventoryHashPacket::decode)
+                .encoder(InventoryHashPacket::encode)
+                .consumerMainThread(InventoryHashPacket::handle)
+                .add();
+        
         SoulLink.LOGGER.info("Soul-Link network packets registered.");
     }
 
     /**
-     * Send a packet to a specific player
+     * Send a packet to a specific player.
+     * Packets are queued and flushed once at the end of the tick (see {@link SoulLinkPacketQueue}).
      */
     public static void sendToPlayer(Object packet, ServerPlayer player) {
-        CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), packet);
+        SoulLinkPacketQueue.enqueue(packet, player);
+    }
+
+    /**
+     * Send cosmetic link feedback to a player. Lowest priority: it is deferred, or dropped
+     * once stale, while the player's bandwidth budget is used up.
+     */
+    public static void sendFeedback(ServerPlayer player, Component message, boolean actionBar) {
+        sendToPlayer(new FeedbackMessage(message, actionBar, player.server.getTickCount()), player);
     }
 
     /**
      * Send a packet to all players
      */
     public static void sendToAll(Object packet) {
-        CHANNEL.send(PacketDistributor.ALL.noArg(), packet);
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+        
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            sendToPlayer(packet, player);
+        }
+    }
+
+    /**
+     * Send a packet to a player immediately, bypassing the per-tick queue
+     */
+    static void sendNow(Object packet, ServerPlayer player) {
+        if (packet instanceof FeedbackMessage feedback) {
+            player.connection.send(feedback.toVanillaPacket());
+            return;
+        }
+        CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), packet);
     }
 }
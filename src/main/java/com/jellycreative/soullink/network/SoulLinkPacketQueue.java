@@ -0,0 +1,301 @@
+package com.jellycreative.soullink.network;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import com.jellycreative.soullink.util.SoulLinkGovernor;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.NetworkDirection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player outbound queue for Soul-Link packets.
+ *
+ * Packets sent from the server thread are collected during the tick, superseded packets are
+ * dropped (see {@link CoalescingPacket}), and everything left is written to each player as a
+ * single bundle at the end of the tick - one write and flush per player instead of one per packet.
+ * Packets are ordered by priority class (see below) and, within a class, by when they were first
+ * queued - packets of different classes are reordered against each other.
+ * Oversized inventory syncs are handed to {@link ChunkedInventoryTransfer}, whose chunks go out
+ * after the player's other inventory packets, a window at a time.
+ *
+ * Each player has a token bucket of outbound bytes (performance.playerBandwidth, one second of
+ * burst). Packets are sent by priority class: vitals always go out, then inventory syncs and
+ * chunks, then cosmetic feedback - each only while the bucket has tokens left. Deferred packets
+ * stay queued and coalesce with newer ones; feedback older than COSMETIC_MAX_AGE ticks is dropped.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkPacketQueue {
+
+    // Vanilla rejects bundles with more packets than this
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    // Deferred feedback older than this (in ticks) is no longer worth sending
+    private static final int COSMETIC_MAX_AGE = 40;
+
+    // Rough size of the small fixed-size packets (vitals, acks)
+    private static final int SMALL_PACKET_SIZE = 32;
+
+    /**
+     * Send priority of queued packets, highest first
+     */
+    private enum PacketClass {
+        VITALS,
+        INVENTORY,
+        COSMETIC
+    }
+
+    // Only touched on the server thread
+    private static final Map<UUID, PlayerQueue> queues = new LinkedHashMap<>();
+    private static final Map<UUID, TokenBucket> buckets = new HashMap<>();
+
+    // Stats
+    private static long packetsQueued = 0;
+    private static long packetsCoalesced = 0;
+    private static long packetsSent = 0;
+    private static long flushes = 0;
+    private static final long[] bytesSent = new long[PacketClass.values().length];
+    private static long packetsDeferred = 0;
+    private static long feedbackDropped = 0;
+    private static long encodingWaits = 0;
+
+    private static class PlayerQueue {
+        // Replaced by the newest entity, since respawning replaces the player while packets may still be deferred
+        ServerPlayer player;
+        final LinkedHashMap<Object, Object> messages = new LinkedHashMap<>();
+
+        PlayerQueue(ServerPlayer player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * Outbound byte budget of one player. Tokens may go negative when a packet is larger
+     * than what is left; the debt is paid off before lower classes can send again.
+     */
+    private static class TokenBucket {
+        double tokens;
+        int lastRefillTick;
+
+        TokenBucket(double tokens, int tick) {
+            this.tokens = tokens;
+            this.lastRefillTick = tick;
+        }
+
+        void refill(int tick, int bytesPerSecond) {
+            tokens = Math.min(bytesPerSecond, tokens + (tick - lastRefillTick) * bytesPerSecond / 20.0);
+            lastRefillTick = tick;
+        }
+    }
+
+    /**
+     * Queue a packet for a player. Falls back to an immediate send off the server thread.
+     */
+    public static void enqueue(Object packet, ServerPlayer player) {
+        if (!player.server.isSameThread()) {
+            SoulLinkNetwork.sendNow(packet, player);
+            return;
+        }
+
+        PlayerQueue queue = queues.computeIfAbsent(player.getUUID(), id -> new PlayerQueue(player));
+        queue.player = player;
+        packetsQueued++;
+
+        if (packet instanceof CoalescingPacket coalescing) {
+            Object key = coalescing.coalesceKey();
+            Object previous = queue.messages.get(key);
+            if (previous instanceof CoalescingPacket older) {
+                // Replacing the value keeps the original queue position
+                queue.messages.put(key, older.coalesce(packet));
+                packetsCoalesced++;
+                return;
+            }
+            queue.messages.put(key, packet);
+        } else {
+            queue.messages.put(new Object(), packet);
+        }
+    }
+
+    /**
+     * Write queued packets within each player's budget, one bundle per player
+     */
+    @SuppressWarnings("unchecked")
+    public static void flush() {
+        Iterator<ServerPlayer> chunked = ChunkedInventoryTransfer.playersWithPendingChunks();
+        while (chunked.hasNext()) {
+            ServerPlayer player = chunked.next();
+            queues.computeIfAbsent(player.getUUID(), id -> new PlayerQueue(player));
+        }
+        if (queues.isEmpty()) return;
+
+        int bandwidth = SoulLinkConfig.PLAYER_BANDWIDTH.get();
+        Iterator<PlayerQueue> queueIterator = queues.values().iterator();
+        while (queueIterator.hasNext()) {
+            PlayerQueue queue = queueIterator.next();
+            ServerPlayer player = queue.player;
+            if (player.hasDisconnected()) {
+                queueIterator.remove();
+                continue;
+            }
+
+            int tick = player.server.getTickCount();
+            TokenBucket bucket = buckets.computeIfAbsent(player.getUUID(), id -> new TokenBucket(bandwidth, tick));
+            bucket.refill(tick, bandwidth);
+
+            List<Object> messages = new ArrayList<>(queue.messages.size());
+            for (PacketClass packetClass : PacketClass.values()) {
+                Iterator<Object> iterator = queue.messages.values().iterator();
+                while (iterator.hasNext()) {
+                    Object message = iterator.next();
+                    if (classify(message) != packetClass) {
+                        continue;
+                    }
+                    if (message instanceof SyncInventoryPacket inventory && !inventory.isEncodingReady()) {
+                        encodingWaits++;
+                        continue; // Picked up by a later flush once encoded
+                    }
+                    if (message instanceof SyncInventoryPacket inventory && ChunkedInventoryTransfer.intercept(player, inventory)) {
+                        iterator.remove();
+                        continue;
+                    }
+                    if (message instanceof FeedbackMessage feedback && tick - feedback.queuedTick > COSMETIC_MAX_AGE) {
+                        iterator.remove();
+                        feedbackDropped++;
+                        continue;
+                    }
+                    if (packetClass != PacketClass.VITALS && bandwidth > 0 && bucket.tokens <= 0) {
+                        continue; // Deferred to a later tick
+                    }
+                    iterator.remove();
+                    messages.add(message);
+                    charge(bucket, packetClass, estimatedSize(message));
+                }
+
+                // Chunks of a running transfer count as inventory traffic
+                if (packetClass == PacketClass.INVENTORY && (bandwidth == 0 || bucket.tokens > 0)) {
+                    int before = messages.size();
+                    ChunkedInventoryTransfer.collectChunks(player, messages);
+                    for (int i = before; i < messages.size(); i++) {
+                        charge(bucket, packetClass, estimatedSize(messages.get(i)));
+                    }
+                }
+            }
+            packetsDeferred += queue.messages.size();
+            if (queue.messages.isEmpty()) {
+                queueIterator.remove();
+            }
+            if (messages.isEmpty()) {
+                continue;
+            }
+
+            List<Packet<ClientGamePacketListener>> packets = new ArrayList<>(messages.size());
+            for (Object message : messages) {
+                if (message instanceof FeedbackMessage feedback) {
+                    packets.add(feedback.toVanillaPacket());
+                } else {
+                    packets.add((Packet<ClientGamePacketListener>) SoulLinkNetwork.CHANNEL.toVanillaPacket(message, NetworkDirection.PLAY_TO_CLIENT));
+                }
+            }
+            packetsSent += packets.size();
+
+            if (packets.size() == 1) {
+                player.connection.send(packets.get(0));
+                flushes++;
+                continue;
+            }
+
+            Iterator<Packet<ClientGamePacketListener>> iterator = packets.iterator();
+            while (iterator.hasNext()) {
+                List<Packet<ClientGamePacketListener>> bundle = new ArrayList<>(Math.min(packets.size(), MAX_BUNDLE_SIZE));
+                while (iterator.hasNext() && bundle.size() < MAX_BUNDLE_SIZE) {
+                    bundle.add(iterator.next());
+                }
+                player.connection.send(new ClientboundBundlePacket(bundle));
+                flushes++;
+            }
+        }
+    }
+
+    private static PacketClass classify(Object message) {
+        if (message instanceof SyncInventoryPacket || message instanceof InventoryChunkPacket) {
+            return PacketClass.INVENTORY;
+        }
+        if (message instanceof FeedbackMessage) {
+            return PacketClass.COSMETIC;
+        }
+        return PacketClass.VITALS;
+    }
+
+    private static int estimatedSize(Object message) {
+        if (message instanceof SyncInventoryPacket inventory) {
+            return inventory.getEncoded().length;
+        }
+        if (message instanceof InventoryChunkPacket chunk) {
+            return chunk.estimatedSize();
+        }
+        if (message instanceof FeedbackMessage feedback) {
+            return feedback.estimatedSize();
+        }
+        return SMALL_PACKET_SIZE;
+    }
+
+    private static void charge(TokenBucket bucket, PacketClass packetClass, int size) {
+        bucket.tokens -= size;
+        bytesSent[packetClass.ordinal()] += size;
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        int bandwidth = SoulLinkConfig.PLAYER_BANDWIDTH.get();
+        long throttled = queues.values().stream().filter(queue -> !queue.messages.isEmpty()).count();
+        double lowestTokens = buckets.values().stream().mapToDouble(bucket -> bucket.tokens).min().orElse(bandwidth);
+        return String.format("queued %d, coalesced %d, sent %d in %d flush(es); budget %s, ~%d/%d/%d bytes sent (vitals/inventory/cosmetic), "
+                        + "%d deferral(s), %d stale feedback dropped, %d player(s) waiting, lowest balance %.0f bytes, %d encoding wait(s)",
+                packetsQueued, packetsCoalesced, packetsSent, flushes,
+                bandwidth == 0 ? "unlimited" : bandwidth + " B/s per player",
+                bytesSent[PacketClass.VITALS.ordinal()], bytesSent[PacketClass.INVENTORY.ordinal()], bytesSent[PacketClass.COSMETIC.ordinal()],
+                packetsDeferred, feedbackDropped, throttled, lowestTokens, encodingWaits);
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        long start = SoulLinkGovernor.begin();
+        flush();
+        SoulLinkGovernor.end(start);
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        queues.remove(event.getEntity().getUUID());
+        buckets.remove(event.getEntity().getUUID());
+        ChunkedInventoryTransfer.remove(event.getEntity().getUUID());
+    }
+
+    /**
+     * Nothing queued for one world may reach the next (singleplayer keeps the classes loaded)
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        queues.clear();
+        buckets.clear();
+        ChunkedInventoryTransfer.clear();
+    }
+}
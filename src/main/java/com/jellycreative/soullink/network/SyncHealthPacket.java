@@ -9,8 +9,9 @@ import java.util.function.Supplier;
 /**
  * Packet to sync health changes to the client.
  * Ensures the client displays the correct health value.
+ * Only the latest health queued in a tick is sent.
  */
-public class SyncHealthPacket {
+public class SyncHealthPacket implements CoalescingPacket {
     private final float health;
 
     public SyncHealthPacket(float health) {
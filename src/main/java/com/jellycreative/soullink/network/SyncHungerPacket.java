@@ -9,8 +9,9 @@ import java.util.function.Supplier;
 /**
  * Packet to sync hunger (food level) and saturation to the client.
  * Ensures the client displays the correct hunger values.
+ * Only the latest values queued in a tick are sent.
  */
-public class SyncHungerPacket {
+public class SyncHungerPacket implements CoalescingPacket {
     private final int foodLevel;
     private final float saturation;
 
@@ -1,72 +1,237 @@
 package com.jellycreative.soullink.network;
 
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.client.ClientInventoryReporter;
 import com.jellycreative.soullink.inventory.SharedInventoryManager;
+import com.jellycreative.soullink.util.SoulLinkEncoder;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.network.NetworkEvent;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 /**
- * Packet to sync the full inventory from server to client.
- * Used for shared inventory synchronization.
+ * Packet to sync shared inventory slots from server to client.
+ * Carries only the slots that changed (all 41 for a full sync), addressed by
+ * shared inventory index (0-35 main, 36-39 armor, 40 offhand).
+ * Packets queued in the same tick are merged, newer slots winning.
+ *
+ * A slot whose change is confined to the items inside a container item can be sent as a
+ * {@link NestedItemDelta} instead; the client then patches the stack it already has.
+ *
+ * The wire form is built once per packet, from per-stack bytes in {@link EncodedStackCache},
+ * so one packet can be multicast to any number of players without re-encoding it.
+ * Server-side packets with enough entries are encoded on the {@link SoulLinkEncoder} pool;
+ * the packet queue holds them back until that has finished.
+ * Packets that encode to more than one chunk are sent through {@link ChunkedInventoryTransfer}.
  */
-public class SyncInventoryPacket {
-    
-    private final List<ItemStack> inventory;
-
-    public SyncInventoryPacket(List<ItemStack> inventory) {
-        this.inventory = new ArrayList<>(inventory.size());
-        for (ItemStack stack : inventory) {
-            this.inventory.add(stack.copy());
+public class SyncInventoryPacket implements CoalescingPacket {
+
+    // Flag on the wire slot index marking a nested delta entry (slot indices fit in 7 bits)
+    private static final int NESTED_DELTA_FLAG = 0x80;
+
+    // Smaller packets are cheaper to encode in place than to hand off
+    private static final int ASYNC_MIN_ENTRIES = 4;
+
+    private final int[] slots;
+    private final List<ItemStack> stacks;
+
+    // Per entry: nested delta to send instead of the whole stack, or null (null array = none).
+    // On the server the full stack is always kept as well, so the packet can still be coalesced.
+    private final NestedItemDelta[] deltas;
+
+    // Wire form of every full-stack entry, resolved on the server thread by prepareEncoding()
+    private EncodedStackCache.Snapshot[] snapshots;
+
+    // Encoded payload, built on first send and reused for every recipient
+    private byte[] encoded;
+
+    // Background encoding started by prepareEncoding(), or null
+    private volatile CompletableFuture<Void> encoding;
+
+    /**
+     * The packet keeps the given list as is - pass stacks that are not modified afterwards.
+     */
+    public SyncInventoryPacket(int[] slots, List<ItemStack> stacks) {
+        this(slots, stacks, null);
+    }
+
+    public SyncInventoryPacket(int[] slots, List<ItemStack> stacks, NestedItemDelta[] deltas) {
+        this.slots = slots;
+        this.stacks = stacks;
+        this.deltas = deltas;
+    }
+
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Shared slot indices carried by the packet, in packet order
+     */
+    public int[] getSlots() {
+        return slots.clone();
+    }
+
+    /**
+     * Snapshot the stacks' wire form and start encoding on the background pool. Server thread only;
+     * the stacks must not change afterwards. The background encoding only reads the snapshots, never
+     * the stacks, so no item code runs off the server thread. Small packets, and all packets while
+     * the pool is unavailable, are encoded on first send instead.
+     */
+    public SyncInventoryPacket prepareEncoding() {
+        if (snapshots == null) {
+            EncodedStackCache.Snapshot[] taken = new EncodedStackCache.Snapshot[slots.length];
+            for (int i = 0; i < taken.length; i++) {
+                if (deltaAt(i) == null) {
+                    taken[i] = EncodedStackCache.snapshot(stacks.get(i));
+                }
+            }
+            snapshots = taken;
         }
+        if (slots.length >= ASYNC_MIN_ENTRIES && encoding == null) {
+            encoding = SoulLinkEncoder.submit(this::getEncoded);
+        }
+        return this;
+    }
+
+    /**
+     * Whether {@link #getEncoded} can be called without waiting for background work
+     */
+    boolean isEncodingReady() {
+        CompletableFuture<Void> pending = encoding;
+        return pending == null || pending.isDone();
+    }
+
+    @Override
+    public Object coalesce(Object newer) {
+        SyncInventoryPacket other = (SyncInventoryPacket) newer;
+        TreeMap<Integer, ItemStack> merged = new TreeMap<>();
+        TreeMap<Integer, NestedItemDelta> mergedDeltas = new TreeMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            merged.put(slots[i], stacks.get(i));
+            if (deltaAt(i) != null) {
+                mergedDeltas.put(slots[i], deltaAt(i));
+            }
+        }
+        for (int i = 0; i < other.slots.length; i++) {
+            // A delta is only valid against the stack the client had before both packets
+            boolean sentBefore = merged.put(other.slots[i], other.stacks.get(i)) != null;
+            mergedDeltas.remove(other.slots[i]);
+            if (!sentBefore && other.deltaAt(i) != null) {
+                mergedDeltas.put(other.slots[i], other.deltaAt(i));
+            }
+        }
+
+        int[] mergedSlots = merged.keySet().stream().mapToInt(Integer::intValue).toArray();
+        NestedItemDelta[] deltaArray = null;
+        if (!mergedDeltas.isEmpty()) {
+            deltaArray = new NestedItemDelta[mergedSlots.length];
+            for (int i = 0; i < mergedSlots.length; i++) {
+                deltaArray[i] = mergedDeltas.get(mergedSlots[i]);
+            }
+        }
+        return new SyncInventoryPacket(mergedSlots, new ArrayList<>(merged.values()), deltaArray).prepareEncoding();
+    }
+
+    private NestedItemDelta deltaAt(int entry) {
+        return deltas == null ? null : deltas[entry];
     }
 
     public static void encode(SyncInventoryPacket packet, FriendlyByteBuf buf) {
-        buf.writeInt(packet.inventory.size());
-        for (ItemStack stack : packet.inventory) {
-            buf.writeItem(stack);
+        buf.writeBytes(packet.getEncoded());
+    }
+
+    synchronized byte[] getEncoded() {
+        if (encoded == null) {
+            byte[][] items = new byte[slots.length][];
+            int length = 1;
+            for (int i = 0; i < items.length; i++) {
+                NestedItemDelta delta = deltaAt(i);
+                if (delta != null) {
+                    items[i] = delta.getEncoded();
+                } else {
+                    // Without snapshots this runs on the server thread (packets that skipped prepareEncoding)
+                    items[i] = snapshots != null ? EncodedStackCache.get(snapshots[i]) : EncodedStackCache.get(stacks.get(i));
+                }
+                length += 1 + items[i].length;
+            }
+
+            // Same layout decode() reads: entry count, then slot index + writeItem record or nested delta per entry
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            buf.put((byte) slots.length);
+            for (int i = 0; i < items.length; i++) {
+                buf.put((byte) (deltaAt(i) != null ? slots[i] | NESTED_DELTA_FLAG : slots[i]));
+                buf.put(items[i]);
+            }
+            encoded = buf.array();
         }
+        return encoded;
     }
 
     public static SyncInventoryPacket decode(FriendlyByteBuf buf) {
-        int size = buf.readInt();
-        List<ItemStack> inventory = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            inventory.add(buf.readItem());
+        int count = buf.readUnsignedByte();
+        int[] slots = new int[count];
+        List<ItemStack> stacks = new ArrayList<>(count);
+        NestedItemDelta[] deltas = null;
+        for (int i = 0; i < count; i++) {
+            int slot = buf.readUnsignedByte();
+            slots[i] = slot & ~NESTED_DELTA_FLAG;
+            if ((slot & NESTED_DELTA_FLAG) != 0) {
+                if (deltas == null) {
+                    deltas = new NestedItemDelta[count];
+                }
+                deltas[i] = NestedItemDelta.read(buf);
+                stacks.add(null);
+            } else {
+                stacks.add(buf.readItem());
+            }
         }
-        return new SyncInventoryPacket(inventory);
+        return new SyncInventoryPacket(slots, stacks, deltas);
     }
 
     public static void handle(SyncInventoryPacket packet, Supplier<NetworkEvent.Context> ctx) {
-        ctx.get().enqueueWork(() -> {
-            Minecraft mc = Minecraft.getInstance();
-            if (mc.player != null && packet.inventory.size() >= SharedInventoryManager.INVENTORY_SIZE) {
-                Inventory inv = mc.player.getInventory();
-                
-                // Apply main inventory (slots 0-35)
-                for (int i = 0; i < 36 && i < packet.inventory.size(); i++) {
-                    inv.setItem(i, packet.inventory.get(i).copy());
+        ctx.get().enqueueWork(() -> applyOnClient(packet));
+        ctx.get().setPacketHandled(true);
+    }
+
+    /**
+     * Apply a received sync to the local player (client thread only).
+     * Only slots that actually differ are touched, so unchanged stacks keep their identity
+     * (and everything the client caches for them). Decoded stacks belong to this packet and
+     * are stored without copying.
+     */
+    static void applyOnClient(SyncInventoryPacket packet) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null) {
+            Inventory inv = mc.player.getInventory();
+
+            // Shared slot indices match the player inventory's container slots
+            for (int i = 0; i < packet.slots.length; i++) {
+                int slot = packet.slots[i];
+                if (slot >= SharedInventoryManager.INVENTORY_SIZE) {
+                    continue;
                 }
-                
-                // Apply armor (slots 36-39)
-                for (int i = 0; i < 4; i++) {
-                    int packetSlot = SharedInventoryManager.ARMOR_START + i;
-                    if (packetSlot < packet.inventory.size()) {
-                        inv.armor.set(i, packet.inventory.get(packetSlot).copy());
+                NestedItemDelta delta = packet.deltaAt(i);
+                if (delta == null) {
+                    ItemStack incoming = packet.stacks.get(i);
+                    if (!ItemStack.matches(inv.getItem(slot), incoming)) {
+                        inv.setItem(slot, incoming);
                     }
-                }
-                
-                // Apply offhand (slot 40)
-                if (SharedInventoryManager.OFFHAND_SLOT < packet.inventory.size()) {
-                    inv.offhand.set(0, packet.inventory.get(SharedInventoryManager.OFFHAND_SLOT).copy());
+                } else if (delta.applyTo(inv.getItem(slot))) {
+                    inv.setChanged();
+                } else {
+                    SoulLink.LOGGER.debug("Nested delta for slot {} did not match the local stack", slot);
+                    ClientInventoryReporter.requestReport();
                 }
             }
-        });
-        ctx.get().setPacketHandled(true);
+        }
     }
 }
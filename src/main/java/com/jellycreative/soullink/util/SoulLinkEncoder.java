@@ -0,0 +1,122 @@
+package com.jellycreative.soullink.util;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work-stealing pool for CPU-bound packet encoding off the server thread.
+ *
+ * The server thread hands over immutable snapshots (packets built from canonical stacks that are
+ * never modified in place) and picks the finished bytes up on a later packet queue flush, so
+ * item serialization no longer runs in the tick and spreads over the available cores.
+ * Separate from {@link SoulLinkExecutor}, whose threads are meant for blocking I/O.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkEncoder {
+
+    // Leave a core for the server thread
+    private static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private static final Object lifecycleLock = new Object();
+    private static ForkJoinPool pool;
+    private static boolean accepting = true;
+
+    // Metrics
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Run an encoding task on the pool.
+     *
+     * @return the task's future, or null if off-thread encoding is disabled or the server is stopping -
+     *         callers then encode lazily on the server thread as before
+     */
+    public static CompletableFuture<Void> submit(Runnable task) {
+        if (!SoulLinkConfig.ASYNC_ENCODING.get()) {
+            return null;
+        }
+
+        ForkJoinPool executor = getPool();
+        if (executor == null) {
+            return null;
+        }
+
+        submitted.incrementAndGet();
+        try {
+            return CompletableFuture.runAsync(task, executor).whenComplete((result, error) -> {
+                if (error != null) {
+                    // The caller encodes again on the server thread
+                    failed.incrementAndGet();
+                    SoulLink.LOGGER.error("Soul-Link background encoding failed", error);
+                } else {
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.decrementAndGet();
+            return null;
+        }
+    }
+
+    private static ForkJoinPool getPool() {
+        synchronized (lifecycleLock) {
+            if (!accepting) {
+                return null;
+            }
+            if (pool == null) {
+                AtomicInteger counter = new AtomicInteger();
+                ClassLoader classLoader = SoulLinkEncoder.class.getClassLoader();
+                pool = new ForkJoinPool(PARALLELISM, forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("SoulLink-Encode-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(classLoader);
+                    return thread;
+                }, null, true);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Human readable metrics for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%s, %d thread(s), submitted %d, completed %d, failed %d",
+                SoulLinkConfig.ASYNC_ENCODING.get() ? "enabled" : "disabled", PARALLELISM,
+                submitted.get(), completed.get(), failed.get());
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        synchronized (lifecycleLock) {
+            accepting = true;
+        }
+    }
+
+    /**
+     * Nothing is sent after the server has stopped, so pending encodings are simply abandoned
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        synchronized (lifecycleLock) {
+            accepting = false;
+            if (pool != null) {
+                pool.shutdownNow();
+                pool = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.jellycreative.soullink.util;
+
+import com.jellycreative.soullink.SoulLink;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mod-owned background executor for Soul-Link I/O work (persistence, snapshots, exports).
+ *
+ * On Java 21+ runtimes every task gets its own virtual thread. On Java 17 a small bounded
+ * platform pool is used instead; when its queue is full the task runs on the caller so
+ * nothing is ever dropped.
+ *
+ * All threads are named "SoulLink-IO-*" / "SoulLink-Timer" and the executor is drained
+ * when the server stops. Tasks submitted after the drain run inline on the caller, which
+ * keeps the final world save working.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkExecutor {
+
+    // Bounded platform pool settings (Java 17 fallback)
+    private static final int POOL_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int POOL_QUEUE_CAPACITY = 1024;
+
+    // How long to wait for queued work on server stop
+    private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+    private static final Object lifecycleLock = new Object();
+    private static ExecutorService ioExecutor;
+    private static ScheduledExecutorService timer;
+    private static boolean virtualThreads = false;
+    private static boolean accepting = true;
+
+    // Metrics
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong ranInline = new AtomicLong();
+    private static final AtomicInteger active = new AtomicInteger();
+    private static final AtomicInteger peakActive = new AtomicInteger();
+
+    /**
+     * Run a task off the server thread.
+     * The returned future completes once the task has finished (or failed).
+     */
+    public static CompletableFuture<Void> submit(String taskName, Runnable task) {
+        submitted.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable wrapped = () -> runTracked(taskName, task, future);
+
+        ExecutorService executor = getIoExecutor();
+        if (executor == null) {
+            // Server is stopping - run inline so the work is not lost
+            ranInline.incrementAndGet();
+            wrapped.run();
+            return future;
+        }
+
+        try {
+            executor.execute(wrapped);
+        } catch (RejectedExecutionException e) {
+            ranInline.incrementAndGet();
+            wrapped.run();
+        }
+        return future;
+    }
+
+    /**
+     * Run a small task after a delay on the Soul-Link timer thread.
+     * Tasks must be cheap and thread-safe; hand heavier work to {@link #submit}.
+     */
+    public static void schedule(Runnable task, long delayMs) {
+        ScheduledExecutorService scheduler = getTimer();
+        if (scheduler == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private static void runTracked(String taskName, Runnable task, CompletableFuture<Void> future) {
+        int running = active.incrementAndGet();
+        peakActive.accumulateAndGet(running, Math::max);
+        try {
+            task.run();
+            completed.incrementAndGet();
+            future.complete(null);
+        } catch (Throwable t) {
+            failed.incrementAndGet();
+            SoulLink.LOGGER.error("Soul-Link background task '{}' failed", taskName, t);
+            future.completeExceptionally(t);
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private static ExecutorService getIoExecutor() {
+        synchronized (lifecycleLock) {
+            if (!accepting) {
+                return null; // Drained - wait for the next server start
+            }
+            if (ioExecutor == null) {
+                ioExecutor = createIoExecutor();
+            }
+            return ioExecutor;
+        }
+    }
+
+    private static ScheduledExecutorService getTimer() {
+        synchronized (lifecycleLock) {
+            if (!accepting) {
+                return null;
+            }
+            if (timer == null) {
+                ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, namedDaemonFactory("SoulLink-Timer"));
+                scheduler.setRemoveOnCancelPolicy(true);
+                timer = scheduler;
+            }
+            return timer;
+        }
+    }
+
+    private static ExecutorService createIoExecutor() {
+        ExecutorService virtual = tryCreateVirtualExecutor();
+        if (virtual != null) {
+            virtualThreads = true;
+            SoulLink.LOGGER.debug("Soul-Link I/O executor using virtual threads");
+            return virtual;
+        }
+
+        virtualThreads = false;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                POOL_THREADS, POOL_THREADS,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(POOL_QUEUE_CAPACITY),
+                namedDaemonFactory("SoulLink-IO-"),
+                (task, executor) -> {
+                    // Queue is full - run on the caller instead of dropping I/O work
+                    ranInline.incrementAndGet();
+                    task.run();
+                }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        SoulLink.LOGGER.debug("Soul-Link I/O executor using {} platform thread(s)", POOL_THREADS);
+        return pool;
+    }
+
+    /**
+     * Java 21 virtual-thread executor, looked up reflectively so the mod still builds for Java 17.
+     */
+    private static ExecutorService tryCreateVirtualExecutor() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "SoulLink-IO-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method perTask = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // Java 17 - no virtual threads
+        }
+    }
+
+    private static ThreadFactory namedDaemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        boolean numbered = prefix.endsWith("-");
+        return runnable -> {
+            Thread thread = new Thread(runnable, numbered ? prefix + counter.incrementAndGet() : prefix);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Human readable metrics for /soullink stats
+     */
+    public static String describe() {
+        return String.format("%s, submitted %d, completed %d, failed %d, inline %d, active %d (peak %d)",
+                virtualThreads ? "virtual threads" : POOL_THREADS + " platform thread(s)",
+                submitted.get(), completed.get(), failed.get(), ranInline.get(), active.get(), peakActive.get());
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        synchronized (lifecycleLock) {
+            accepting = true;
+        }
+    }
+
+    /**
+     * Drain outstanding work before the server saves and shuts down
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerStopping(ServerStoppingEvent event) {
+        ExecutorService executor;
+        ScheduledExecutorService scheduler;
+        synchronized (lifecycleLock) {
+            accepting = false;
+            executor = ioExecutor;
+            scheduler = timer;
+        }
+
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    SoulLink.LOGGER.warn("Soul-Link I/O tasks did not finish within {}s, abandoning them", DRAIN_TIMEOUT_SECONDS);
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        SoulLink.LOGGER.info("Soul-Link I/O executor drained: {}", describe());
+
+        synchronized (lifecycleLock) {
+            // A fresh executor is created for the next integrated server session
+            ioExecutor = null;
+            timer = null;
+        }
+    }
+}
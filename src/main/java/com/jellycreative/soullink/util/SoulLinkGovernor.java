@@ -0,0 +1,123 @@
+package com.jellycreative.soullink.util;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Load governor for Soul-Link's non-essential work.
+ *
+ * Watches the server's average tick time and the time Soul-Link itself spends per tick.
+ * When either exceeds its configured target, {@link #stretch()} rises above 1 and callers
+ * multiply their cadences by it: inventory checks, save intervals, sync debounce and
+ * cosmetic feedback back off while the server is behind. Vitals (damage, healing, hunger)
+ * never go through the governor and always run at full rate.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkGovernor {
+
+    // Smoothing for Soul-Link's own time per tick (exponential moving average)
+    private static final double OWN_TIME_SMOOTHING = 0.1;
+
+    // The stretch drops by one step at most this often (in ticks), so it does not flap
+    private static final int RELAX_INTERVAL = 20;
+
+    // Only touched on the server thread
+    private static long currentTickNanos = 0;
+    private static double ownTimeMs = 0;
+    private static float averageTickMs = 0;
+    private static int stretch = 1;
+    private static int relaxCooldown = 0;
+
+    /**
+     * Start timing a piece of governed work; pass the result to {@link #end}
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Finish timing a piece of governed work
+     */
+    public static void end(long start) {
+        currentTickNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Current cadence multiplier, 1 when the server keeps up
+     */
+    public static int stretch() {
+        return stretch;
+    }
+
+    /**
+     * A tick interval stretched to the current load
+     */
+    public static int interval(int baseTicks) {
+        return baseTicks * stretch;
+    }
+
+    /**
+     * A millisecond interval stretched to the current load
+     */
+    public static long intervalMs(long baseMs) {
+        return baseMs * stretch;
+    }
+
+    /**
+     * Whether cosmetic feedback (link messages) should be sent right now
+     */
+    public static boolean allowCosmetic() {
+        return stretch == 1;
+    }
+
+    /**
+     * Human readable state for /soullink stats
+     */
+    public static String describe() {
+        return String.format("avg tick %.1f ms (target %.1f), Soul-Link %.2f ms/tick (budget %.2f), stretch x%d",
+                averageTickMs, SoulLinkConfig.TARGET_MSPT.get(), ownTimeMs, SoulLinkConfig.TICK_BUDGET_MS.get(), stretch);
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) return;
+
+        // Everything measured since the last START belongs to the previous tick
+        ownTimeMs += (currentTickNanos / 1_000_000.0 - ownTimeMs) * OWN_TIME_SMOOTHING;
+        currentTickNanos = 0;
+
+        MinecraftServer server = event.getServer();
+        averageTickMs = server != null ? server.getAverageTickTime() : 0;
+
+        double pressure = Math.max(averageTickMs / SoulLinkConfig.TARGET_MSPT.get(),
+                ownTimeMs / SoulLinkConfig.TICK_BUDGET_MS.get());
+        int target = pressure <= 1.0 ? 1 : (int) Math.ceil(pressure * pressure);
+        target = Math.min(target, SoulLinkConfig.MAX_STRETCH.get());
+
+        if (target > stretch) {
+            if (stretch == 1) {
+                SoulLink.LOGGER.debug("Soul-Link backing off: {}", describe());
+            }
+            stretch = target;
+            relaxCooldown = RELAX_INTERVAL;
+        } else if (target < stretch && --relaxCooldown <= 0) {
+            stretch--;
+            relaxCooldown = RELAX_INTERVAL;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        currentTickNanos = 0;
+        ownTimeMs = 0;
+        averageTickMs = 0;
+        stretch = 1;
+        relaxCooldown = 0;
+    }
+}
@@ -0,0 +1,182 @@
+package com.jellycreative.soullink.util;
+
+import com.jellycreative.soullink.SoulLink;
+import com.jellycreative.soullink.config.SoulLinkConfig;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tick-budgeted queue for deferred, non-urgent Soul-Link work on the server thread
+ * (join syncs, container-close resyncs, command-triggered syncs, saves).
+ *
+ * At the end of every tick queued work runs in priority order until the configured time
+ * budget is spent; whatever is left carries over to the next tick. A class that has waited
+ * STARVATION_TICKS without running goes first on the next tick, so low priority work still
+ * makes progress under a steady stream of high priority work. At least one task runs per tick.
+ *
+ * Tasks queued under a key that is already waiting replace the waiting task in place.
+ * After the server starts stopping, tasks run immediately so no save is lost.
+ */
+@Mod.EventBusSubscriber(modid = SoulLink.MOD_ID)
+public class SoulLinkWorkQueue {
+
+    public enum Priority {
+        HIGH,   // Work a player is waiting for (joins, container-close resyncs)
+        NORMAL, // Operator-triggered work (command syncs)
+        LOW     // Background work (saves)
+    }
+
+    // Ticks a class may wait before it is served first
+    private static final int STARVATION_TICKS = 20;
+
+    // Only touched on the server thread
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Map<Priority, LinkedHashMap<Object, Runnable>> queues = new LinkedHashMap<>();
+    private static final int[] ticksWaiting = new int[PRIORITIES.length];
+    private static boolean accepting = true;
+
+    // Stats
+    private static long tasksRun = 0;
+    private static long tasksReplaced = 0;
+    private static long carriedOverTicks = 0;
+    private static long starvationBoosts = 0;
+
+    static {
+        for (Priority priority : PRIORITIES) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Queue a task under a key. Must be called on the server thread.
+     */
+    public static void submit(Priority priority, Object key, Runnable task) {
+        if (!accepting) {
+            runSafely(key, task);
+            return;
+        }
+
+        LinkedHashMap<Object, Runnable> queue = queues.get(priority);
+        if (queue.put(key, task) != null) {
+            tasksReplaced++;
+        }
+    }
+
+    /**
+     * Run queued work until the tick budget is spent
+     */
+    private static void runQueued() {
+        // The budget shrinks while the governor is backing off
+        long budgetNanos = (long) (SoulLinkConfig.WORK_QUEUE_BUDGET_MS.get() * 1_000_000) / SoulLinkGovernor.stretch();
+        long deadline = System.nanoTime() + budgetNanos;
+        boolean ranAny = false;
+
+        // Starved classes first, then everything in priority order
+        for (int pass = 0; pass < 2; pass++) {
+            for (Priority priority : PRIORITIES) {
+                boolean starved = ticksWaiting[priority.ordinal()] >= STARVATION_TICKS;
+                if ((pass == 0) != starved) {
+                    continue;
+                }
+
+                LinkedHashMap<Object, Runnable> queue = queues.get(priority);
+                if (queue.isEmpty()) {
+                    ticksWaiting[priority.ordinal()] = 0;
+                    continue;
+                }
+                if (ranAny && System.nanoTime() >= deadline) {
+                    continue;
+                }
+
+                if (starved) {
+                    starvationBoosts++;
+                }
+                ticksWaiting[priority.ordinal()] = 0;
+
+                while (!queue.isEmpty() && (!ranAny || System.nanoTime() < deadline)) {
+                    runNext(queue);
+                    ranAny = true;
+                }
+            }
+        }
+
+        boolean carriedOver = false;
+        for (Priority priority : PRIORITIES) {
+            if (!queues.get(priority).isEmpty()) {
+                ticksWaiting[priority.ordinal()]++;
+                carriedOver = true;
+            }
+        }
+        if (carriedOver) {
+            carriedOverTicks++;
+        }
+    }
+
+    /**
+     * Remove and run the oldest task. Tasks may queue more work, so no iterator is kept across runs.
+     */
+    private static void runNext(LinkedHashMap<Object, Runnable> queue) {
+        Iterator<Map.Entry<Object, Runnable>> iterator = queue.entrySet().iterator();
+        Map.Entry<Object, Runnable> entry = iterator.next();
+        iterator.remove();
+        runSafely(entry.getKey(), entry.getValue());
+    }
+
+    private static void runSafely(Object key, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            SoulLink.LOGGER.error("Soul-Link deferred task {} failed", key, e);
+        }
+        tasksRun++;
+    }
+
+    /**
+     * Human readable stats for /soullink stats
+     */
+    public static String describe() {
+        return String.format("waiting %d/%d/%d (high/normal/low), run %d, replaced %d, carried over %d tick(s), %d starvation boost(s)",
+                queues.get(Priority.HIGH).size(), queues.get(Priority.NORMAL).size(), queues.get(Priority.LOW).size(),
+                tasksRun, tasksReplaced, carriedOverTicks, starvationBoosts);
+    }
+
+    /**
+     * Runs before the packet queue flush, so packets produced by deferred work go out this tick
+     */
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        long start = SoulLinkGovernor.begin();
+        runQueued();
+        SoulLinkGovernor.end(start);
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        accepting = true;
+    }
+
+    /**
+     * Run everything still queued, then run later submissions (logout saves) immediately
+     */
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onServerStopping(ServerStoppingEvent event) {
+        accepting = false;
+        for (Priority priority : PRIORITIES) {
+            LinkedHashMap<Object, Runnable> queue = queues.get(priority);
+            while (!queue.isEmpty()) {
+                runNext(queue);
+            }
+            ticksWaiting[priority.ordinal()] = 0;
+        }
+    }
+}